@@ -0,0 +1,60 @@
+package com.cassandra.browser.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named driver performance profiles (cassandra.profiles.*). A connection picks one
+ * by name and ConnectionManager applies it when the session is built.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cassandra")
+public class DriverProfileProperties {
+    
+    public static final String DEFAULT_PROFILE = "default";
+    
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+    
+    public Profile getProfile(String name) {
+        String profileName = name == null || name.isEmpty() ? DEFAULT_PROFILE : name;
+        Profile profile = profiles.get(profileName);
+        if (profile == null) {
+            if (DEFAULT_PROFILE.equals(profileName)) {
+                // No default configured - fall back to the built-in settings
+                return new Profile();
+            }
+            throw new IllegalArgumentException("Unknown performance profile: " + profileName);
+        }
+        return profile;
+    }
+    
+    @Data
+    public static class Profile {
+        // Connection pool
+        private int localPoolSize = 1;
+        private int remotePoolSize = 1;
+        private int maxRequestsPerConnection = 1024;
+        
+        // Request throttling: none, concurrency or rate
+        private String throttler = "none";
+        private int maxConcurrentRequests = 1024;
+        private int maxRequestsPerSecond = 10000;
+        private int maxQueueSize = 10000;
+        private long drainIntervalMillis = 10;
+        
+        // Speculative execution for idempotent reads, disabled when maxExecutions <= 1
+        private int speculativeMaxExecutions = 1;
+        private long speculativeDelayMillis = 100;
+        
+        // Load balancing: DefaultLoadBalancingPolicy is token-aware and DC-aware,
+        // DcInferringLoadBalancingPolicy infers the local DC from the contact points
+        private String loadBalancingPolicy = "DefaultLoadBalancingPolicy";
+        private boolean slowReplicaAvoidance = true;
+        private int remoteDcFailoverNodes = 0;
+    }
+}
@@ -1,16 +1,27 @@
 package com.cassandra.browser.controller;
 
+import com.cassandra.browser.config.DriverProfileProperties;
+import com.cassandra.browser.model.request.CompareRequest;
 import com.cassandra.browser.model.request.ConnectionRequest;
+import com.cassandra.browser.model.request.CopyRequest;
+import com.cassandra.browser.model.request.ExportRequest;
+import com.cassandra.browser.model.request.PartitionScanRequest;
+import com.cassandra.browser.model.request.ProfileRequest;
 import com.cassandra.browser.model.response.*;
 import com.cassandra.browser.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -26,6 +37,33 @@ public class ConnectionController {
     @Autowired
     private CassandraMetadataService metadataService;
     
+    @Autowired
+    private DriverProfileProperties driverProfileProperties;
+    
+    @Autowired
+    private TableExportService tableExportService;
+    
+    @Autowired
+    private TableStatisticsService tableStatisticsService;
+    
+    @Autowired
+    private TableLoadService tableLoadService;
+    
+    @Autowired
+    private TableProfileService tableProfileService;
+    
+    @Autowired
+    private PartitionScanService partitionScanService;
+    
+    @Autowired
+    private TableCompareService tableCompareService;
+    
+    @Autowired
+    private TableCopyService tableCopyService;
+    
+    @Autowired
+    private SchemaSearchService schemaSearchService;
+    
     @PostMapping("/clusters/test-connection")
     public ResponseEntity<ConnectionTestResponse> testConnection(
             @Valid @RequestBody ConnectionRequest request) {
@@ -55,7 +93,8 @@ public class ConnectionController {
                     existingClusterId,
                     existingInfo.getName(),
                     "connected",
-                    existingInfo.getDatacenter()
+                    existingInfo.getDatacenter(),
+                    existingInfo.getProfile()
                 ));
             }
         }
@@ -69,7 +108,8 @@ public class ConnectionController {
             request.getHosts(),
             request.getUsername(),
             request.getPassword(),
-            request.getKeyspace()
+            request.getKeyspace(),
+            request.getProfile()
         );
         
         // Store connection info
@@ -77,14 +117,16 @@ public class ConnectionController {
             new ConnectionManager.ConnectionInfo(
                 request.getName(),
                 request.getDatacenter(),
-                request.getHosts()
+                request.getHosts(),
+                profileName(request.getProfile())
             ));
         
         ClusterResponse response = new ClusterResponse(
             clusterId,
             request.getName(),
             "connected",
-            request.getDatacenter()
+            request.getDatacenter(),
+            profileName(request.getProfile())
         );
         
         return ResponseEntity.ok(response);
@@ -105,13 +147,26 @@ public class ConnectionController {
                     clusterId,
                     info.getName(),
                     "connected",
-                    info.getDatacenter()
+                    info.getDatacenter(),
+                    info.getProfile()
                 ));
             }
         }
         return ResponseEntity.ok(clusters);
     }
     
+    @GetMapping("/clusters/search")
+    public CompletableFuture<ResponseEntity<SchemaSearchResponse>> searchSchema(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        return schemaSearchService.search(query, limit).thenApply(ResponseEntity::ok);
+    }
+    
+    @GetMapping("/clusters/profiles")
+    public ResponseEntity<Map<String, DriverProfileProperties.Profile>> getProfiles() {
+        return ResponseEntity.ok(driverProfileProperties.getProfiles());
+    }
+    
     @DeleteMapping("/clusters/{clusterId}")
     public ResponseEntity<Void> removeConnection(@PathVariable String clusterId) {
         connectionManager.removeSession(clusterId);
@@ -142,15 +197,121 @@ public class ConnectionController {
         return ResponseEntity.ok(details);
     }
     
+    @PostMapping(value = "/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/load",
+                 consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<JobStatusResponse> loadTable(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Integer batchSize,
+            @RequestParam(required = false) Integer maxInFlight) throws IOException {
+        
+        Job job = tableLoadService.startLoad(clusterId, keyspaceName, tableName, file, batchSize, maxInFlight);
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    @GetMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/statistics")
+    public CompletableFuture<ResponseEntity<TableStatisticsResponse>> getTableStatistics(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return tableStatisticsService.getStatistics(clusterId, keyspaceName, tableName, refresh)
+                .thenApply(ResponseEntity::ok);
+    }
+    
     @GetMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/records")
-    public ResponseEntity<QueryResponse> getTableRecords(
+    public CompletableFuture<ResponseEntity<QueryResponse>> getTableRecords(
             @PathVariable String clusterId,
             @PathVariable String keyspaceName,
             @PathVariable String tableName,
-            @RequestParam(defaultValue = "10") int limit) {
-        QueryResponse response = metadataService.getTableRecords(
-            clusterId, keyspaceName, tableName, limit);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean sample) {
+        CompletableFuture<QueryResponse> records = sample
+                ? metadataService.getTableSampleAsync(clusterId, keyspaceName, tableName, limit)
+                : metadataService.getTableRecordsAsync(clusterId, keyspaceName, tableName, limit);
+        return records.thenApply(ResponseEntity::ok);
+    }
+    
+    @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/export")
+    public ResponseEntity<JobStatusResponse> exportTable(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestBody(required = false) ExportRequest request) {
+        
+        Job job = tableExportService.startExport(clusterId, keyspaceName, tableName,
+            request != null ? request : new ExportRequest());
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    @GetMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/profile")
+    public CompletableFuture<ResponseEntity<TableProfileResponse>> profileTableSample(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestParam(required = false) Integer sampleSize,
+            @RequestParam(required = false) Integer topValues) {
+        return tableProfileService.profileSample(clusterId, keyspaceName, tableName, sampleSize, topValues)
+                .thenApply(ResponseEntity::ok);
+    }
+    
+    @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/profile")
+    public ResponseEntity<JobStatusResponse> profileTable(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestBody(required = false) ProfileRequest request) {
+        
+        Job job = tableProfileService.startFullProfile(clusterId, keyspaceName, tableName,
+            request != null ? request : new ProfileRequest());
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/partition-scans")
+    public ResponseEntity<JobStatusResponse> scanPartitions(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @RequestBody(required = false) PartitionScanRequest request) {
+        
+        Job job = partitionScanService.startScan(clusterId, keyspaceName, tableName,
+            request != null ? request : new PartitionScanRequest());
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    @GetMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/partition-scans")
+    public ResponseEntity<List<PartitionScanResponse>> getPartitionScans(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName) throws IOException {
+        return ResponseEntity.ok(partitionScanService.listSummaries(clusterId, keyspaceName, tableName));
+    }
+    
+    @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/compare")
+    public ResponseEntity<JobStatusResponse> compareTable(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @Valid @RequestBody CompareRequest request) {
+        
+        Job job = tableCompareService.startCompare(clusterId, keyspaceName, tableName, request);
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/copy")
+    public ResponseEntity<JobStatusResponse> copyTable(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @Valid @RequestBody CopyRequest request) {
+        
+        Job job = tableCopyService.startCopy(clusterId, keyspaceName, tableName, request);
+        return ResponseEntity.accepted().body(JobStatusResponse.from(job));
+    }
+    
+    private String profileName(String profile) {
+        return profile != null && !profile.isEmpty() ? profile : DriverProfileProperties.DEFAULT_PROFILE;
     }
 }
-
@@ -0,0 +1,48 @@
+package com.cassandra.browser.controller;
+
+import com.cassandra.browser.model.response.JobStatusResponse;
+import com.cassandra.browser.service.JobRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*") // CORS handled by CorsConfig, this is fallback
+public class JobController {
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @GetMapping("/jobs")
+    public ResponseEntity<List<JobStatusResponse>> getJobs() {
+        List<JobStatusResponse> jobs = jobRegistry.list().stream()
+                .map(JobStatusResponse::from)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(jobs);
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<JobStatusResponse> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(JobStatusResponse.from(jobRegistry.get(jobId)));
+    }
+    
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<JobStatusResponse> cancelJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(JobStatusResponse.from(jobRegistry.cancel(jobId)));
+    }
+    
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<JobStatusResponse> resumeJob(@PathVariable String jobId) {
+        return ResponseEntity.accepted().body(JobStatusResponse.from(jobRegistry.resume(jobId)));
+    }
+    
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Void> deleteJob(@PathVariable String jobId) {
+        jobRegistry.remove(jobId);
+        return ResponseEntity.noContent().build();
+    }
+}
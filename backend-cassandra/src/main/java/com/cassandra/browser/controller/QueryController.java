@@ -1,12 +1,19 @@
 package com.cassandra.browser.controller;
 
+import com.cassandra.browser.model.request.MultiGetRequest;
 import com.cassandra.browser.model.request.QueryRequest;
+import com.cassandra.browser.model.response.ColumnarQueryResponse;
 import com.cassandra.browser.model.response.QueryResponse;
 import com.cassandra.browser.service.CassandraQueryService;
+import com.cassandra.browser.service.MultiGetService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -16,20 +23,74 @@ public class QueryController {
     @Autowired
     private CassandraQueryService queryService;
     
+    @Autowired
+    private MultiGetService multiGetService;
+    
     @PostMapping("/clusters/{clusterId}/keyspaces/{keyspaceName}/execute")
-    public ResponseEntity<QueryResponse> executeQuery(
+    public CompletableFuture<ResponseEntity<QueryResponse>> executeQuery(
             @PathVariable String clusterId,
             @PathVariable String keyspaceName,
             @Valid @RequestBody QueryRequest request) {
         
-        QueryResponse response = queryService.executeQuery(
-            clusterId, keyspaceName, request.getQuery());
+        // The servlet thread is released while the query is in flight
+        return queryService.executeQueryAsync(
+                clusterId, keyspaceName, request.getQuery(), request.getParameters(),
+                request.getPageSize(), request.getPagingState())
+            .thenApply(response -> {
+                if (response.getError() != null) {
+                    return ResponseEntity.badRequest().body(response);
+                }
+                return ResponseEntity.ok(response);
+            });
+    }
+    
+    @PostMapping(value = "/clusters/{clusterId}/keyspaces/{keyspaceName}/execute",
+                 produces = ColumnarQueryResponse.MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<ColumnarQueryResponse>> executeColumnarQuery(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @Valid @RequestBody QueryRequest request) {
         
-        if (response.getError() != null) {
-            return ResponseEntity.badRequest().body(response);
-        }
+        return queryService.executeColumnarQueryAsync(
+                clusterId, keyspaceName, request.getQuery(), request.getParameters(),
+                request.getPageSize(), request.getPagingState())
+            .thenApply(response -> {
+                if (response.getError() != null) {
+                    return ResponseEntity.badRequest().body(response);
+                }
+                return ResponseEntity.ok(response);
+            });
+    }
+    
+    @PostMapping(value = "/clusters/{clusterId}/keyspaces/{keyspaceName}/execute/stream",
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamQuery(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @Valid @RequestBody QueryRequest request) {
+        
+        StreamingResponseBody body = queryService.streamQuery(
+            clusterId, keyspaceName, request.getQuery(), request.getParameters(), request.getPageSize());
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @PostMapping(value = "/clusters/{clusterId}/keyspaces/{keyspaceName}/tables/{tableName}/multi-get",
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> multiGet(
+            @PathVariable String clusterId,
+            @PathVariable String keyspaceName,
+            @PathVariable String tableName,
+            @Valid @RequestBody MultiGetRequest request) {
         
-        return ResponseEntity.ok(response);
+        StreamingResponseBody body = multiGetService.streamMultiGet(
+            clusterId, keyspaceName, tableName, request.getKeys(), request.getColumns(), request.getParallelism(),
+            request.getMaxRowsPerKey());
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
-
@@ -0,0 +1,15 @@
+package com.cassandra.browser.model.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CompareRequest {
+    @NotBlank(message = "Target cluster ID is required")
+    private String targetClusterId;
+    private String targetKeyspace; // defaults to the source keyspace
+    private String targetTable; // defaults to the source table
+    private Integer concurrency; // token ranges compared in parallel, null means the default
+    private Integer pageSize; // rows per page within a range
+    private Integer maxDifferences; // differing keys reported, defaults to 1000
+}
@@ -19,5 +19,6 @@ public class ConnectionRequest {
     private String username;
     private String password;
     private String keyspace;
+    private String profile; // driver performance profile name, null means "default"
 }
 
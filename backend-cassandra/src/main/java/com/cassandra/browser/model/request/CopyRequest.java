@@ -0,0 +1,18 @@
+package com.cassandra.browser.model.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CopyRequest {
+    @NotBlank(message = "Target cluster ID is required")
+    private String targetClusterId;
+    private String targetKeyspace; // defaults to the source keyspace
+    private String targetTable; // defaults to the source table
+    private Integer concurrency; // token ranges read in parallel, null means the default
+    private Integer pageSize; // rows per page within a range
+    private Integer maxInFlight; // writes outstanding on the target, defaults to 256
+    private Integer maxRowsPerSecond; // write rate cap across all ranges, null means unlimited
+    private Boolean preserveTtl; // copy the remaining TTL of each cell, defaults to false
+    private Boolean preserveWritetime; // copy the write timestamp of each cell, defaults to false
+}
@@ -0,0 +1,11 @@
+package com.cassandra.browser.model.request;
+
+import lombok.Data;
+
+@Data
+public class ExportRequest {
+    private String format; // csv or ndjson, defaults to csv
+    private Integer concurrency; // token ranges read in parallel, null means the default
+    private Integer pageSize; // rows per page within a range
+    private Boolean compress; // gzip the output, defaults to true
+}
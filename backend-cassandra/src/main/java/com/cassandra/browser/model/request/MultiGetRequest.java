@@ -0,0 +1,15 @@
+package com.cassandra.browser.model.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class MultiGetRequest {
+    @NotEmpty(message = "At least one key is required")
+    private List<List<Object>> keys; // partition key values, optionally followed by clustering values
+    
+    private List<String> columns; // columns to return, null means all
+    private Integer parallelism; // lookups in flight at once, null means the default
+    private Integer maxRowsPerKey; // rows returned per key, null means the default
+}
@@ -0,0 +1,12 @@
+package com.cassandra.browser.model.request;
+
+import lombok.Data;
+
+@Data
+public class PartitionScanRequest {
+    private Integer concurrency; // token ranges read in parallel, null means the default
+    private Integer pageSize; // rows per page within a range
+    private Integer topPartitions; // largest partitions reported, defaults to 20
+    private Integer maxRowsPerSecond; // read rate cap across all ranges, null means unlimited
+    private Integer largePartitionMb; // partitions above this size are counted as large, defaults to 100
+}
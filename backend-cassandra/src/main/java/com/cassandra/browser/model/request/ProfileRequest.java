@@ -0,0 +1,10 @@
+package com.cassandra.browser.model.request;
+
+import lombok.Data;
+
+@Data
+public class ProfileRequest {
+    private Integer concurrency; // token ranges read in parallel, null means the default
+    private Integer pageSize; // rows per page within a range
+    private Integer topValues; // most frequent values reported per column, defaults to 10
+}
@@ -2,10 +2,14 @@ package com.cassandra.browser.model.request;
 
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
+import java.util.List;
 
 @Data
 public class QueryRequest {
     @NotBlank(message = "Query is required")
     private String query;
+    
+    private List<Object> parameters; // values for ? bind markers, in order
+    private Integer pageSize; // null means max result size
+    private String pagingState; // cursor returned by the previous page, null for the first page
 }
-
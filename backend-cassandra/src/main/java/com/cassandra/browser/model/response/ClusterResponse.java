@@ -12,5 +12,6 @@ public class ClusterResponse {
     private String name;
     private String status;
     private String datacenter;
+    private String profile;
 }
 
@@ -0,0 +1,41 @@
+package com.cassandra.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Outcome of comparing a table on two clusters. Counts cover every difference found;
+ * the list of differing keys stops at the requested maximum.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompareResponse {
+    private String sourceClusterId;
+    private String targetClusterId;
+    private String keyspace;
+    private String table;
+    private String targetKeyspace;
+    private String targetTable;
+    private long sourceRows;
+    private long targetRows;
+    private int ranges;
+    private int rangesDiffering;
+    private long segmentsHashed;
+    private long missingInTarget;
+    private long missingInSource;
+    private long mismatched;
+    private List<RowDifference> differences;
+    private boolean truncated;
+    private long executionTime;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowDifference {
+        private List<Object> key; // primary key values
+        private String kind; // missing_in_target, missing_in_source or mismatch
+    }
+}
@@ -0,0 +1,46 @@
+package com.cassandra.browser.model.response;
+
+import com.cassandra.browser.service.Job;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class JobStatusResponse {
+    private String id;
+    private String type;
+    private String status;
+    private String clusterId;
+    private String keyspace;
+    private String table;
+    private int totalRanges;
+    private int completedRanges;
+    private long rowCount;
+    private double progress; // completed ranges / total ranges, 0..1
+    private double rowsPerSecond;
+    private long startedAt;
+    private long finishedAt;
+    private String error;
+    private Object result;
+    
+    public static JobStatusResponse from(Job job) {
+        JobStatusResponse response = new JobStatusResponse();
+        response.setId(job.getId());
+        response.setType(job.getType());
+        response.setStatus(job.getStatus().name());
+        response.setClusterId(job.getClusterId());
+        response.setKeyspace(job.getKeyspace());
+        response.setTable(job.getTable());
+        response.setTotalRanges(job.getTotalRanges());
+        response.setCompletedRanges(job.getCompletedRangeCount());
+        response.setRowCount(job.getRowCount());
+        response.setProgress(job.getTotalRanges() > 0
+            ? (double) job.getCompletedRangeCount() / job.getTotalRanges() : 0);
+        response.setRowsPerSecond(job.getRowsPerSecond());
+        response.setStartedAt(job.getStartedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        response.setError(job.getError());
+        response.setResult(job.getResult());
+        return response;
+    }
+}
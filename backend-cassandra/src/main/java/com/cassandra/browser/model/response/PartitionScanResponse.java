@@ -0,0 +1,48 @@
+package com.cassandra.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Partition sizes of a table measured by a full scan. Bytes are the serialized
+ * size of the cell values, without timestamps or storage overhead, so they
+ * approximate rather than equal the on-disk size.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionScanResponse {
+    private String jobId;
+    private String keyspace;
+    private String table;
+    private long partitions;
+    private long rows;
+    private long bytes;
+    private long largePartitionThresholdBytes;
+    private long largePartitions;
+    private List<PartitionSize> largest;
+    private List<SizeBucket> sizeHistogram;
+    private long executionTime;
+    private long completedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartitionSize {
+        private List<Object> key; // partition key values, usable with the multi-get endpoint
+        private String token;
+        private long rows;
+        private long bytes;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SizeBucket {
+        private long minBytes;
+        private long maxBytes;
+        private long partitions;
+    }
+}
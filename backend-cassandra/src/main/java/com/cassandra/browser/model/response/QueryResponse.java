@@ -15,11 +15,15 @@ public class QueryResponse {
     private int rowCount;
     private long executionTime;
     private String error;
+    private String pagingState; // cursor for the next page, null when there are no more rows
     
     public static QueryResponse error(String errorMessage) {
         QueryResponse response = new QueryResponse();
         response.setError(errorMessage);
         return response;
     }
+    
+    public boolean isHasMore() {
+        return pagingState != null;
+    }
 }
-
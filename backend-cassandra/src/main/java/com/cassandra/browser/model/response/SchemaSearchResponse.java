@@ -0,0 +1,38 @@
+package com.cassandra.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Keyspaces, tables and columns matching a search across all connected clusters,
+ * best match first. Clusters that failed or did not answer in time are listed
+ * separately instead of failing the search.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaSearchResponse {
+    private String query;
+    private List<Match> results;
+    private int totalMatches;
+    private boolean truncated;
+    private int clustersSearched;
+    private List<String> unavailableClusters;
+    private long executionTime;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Match {
+        private String clusterId;
+        private String clusterName;
+        private String kind; // KEYSPACE, TABLE, VIEW or COLUMN
+        private String keyspace;
+        private String table;
+        private String column;
+        private String dataType;
+        private double score;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cassandra.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Per-column value distribution of a table, built from a random sample or a full scan.
+ * Distinct counts and top values come from sketches and are estimates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableProfileResponse {
+    private String keyspace;
+    private String table;
+    private boolean sampled;
+    private long rowsScanned;
+    private List<ColumnProfile> columns;
+    private long executionTime;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ColumnProfile {
+        private String name;
+        private String type;
+        private String kind; // partition_key, clustering, static or regular
+        private long nullCount;
+        private double nullRatio;
+        private long distinctEstimate;
+        private String cardinality; // LOW, MEDIUM, HIGH or UNKNOWN, as used by the intake modeler
+        private List<ValueCount> topValues;
+        private long minLength; // serialized bytes of non-null values
+        private long maxLength;
+        private double avgLength;
+        private List<LengthBucket> lengthHistogram;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ValueCount {
+        private String value;
+        private long count;
+        private long error; // count may exceed the true count by up to this much
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LengthBucket {
+        private long minBytes;
+        private long maxBytes;
+        private long count;
+    }
+}
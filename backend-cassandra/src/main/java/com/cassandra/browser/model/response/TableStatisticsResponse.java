@@ -0,0 +1,38 @@
+package com.cassandra.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Table size estimates aggregated from system.size_estimates of every node.
+ * The numbers are the estimates Cassandra keeps for compaction, not exact counts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableStatisticsResponse {
+    private String keyspace;
+    private String table;
+    private long estimatedPartitions;
+    private long meanPartitionSize; // bytes, weighted by partition count
+    private long estimatedSizeBytes;
+    private int rangeCount;
+    private int nodesQueried;
+    private int nodesFailed;
+    private List<RangeEstimate> outliers;
+    private long computedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RangeEstimate {
+        private String rangeStart;
+        private String rangeEnd;
+        private String node;
+        private long partitionsCount;
+        private long meanPartitionSize;
+        private String reason; // "partition-density" or "large-partitions"
+    }
+}
@@ -1,9 +1,17 @@
 package com.cassandra.browser.service;
 
 import com.cassandra.browser.model.response.*;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.servererrors.InvalidQueryException;
+import com.datastax.oss.driver.api.core.metadata.schema.IndexMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,6 +19,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class CassandraMetadataService {
@@ -18,21 +29,51 @@ public class CassandraMetadataService {
     @Autowired
     private ConnectionManager connectionManager;
     
+    @Autowired
+    private SchemaMetadataCache schemaMetadataCache;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private QueryMetrics queryMetrics;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private TableSampler tableSampler;
+    
     public List<KeyspaceResponse> getKeyspaces(String clusterId) {
         CqlSession session = connectionManager.getSession(clusterId);
+        return schemaMetadataCache.getKeyspaces(clusterId, () -> loadKeyspaces(clusterId, session));
+    }
+    
+    private List<KeyspaceResponse> loadKeyspaces(String clusterId, CqlSession session) {
+        List<KeyspaceResponse> keyspaces = new ArrayList<>();
         
-        ResultSet resultSet = session.execute(
+        // Prefer the driver's in-memory schema metadata
+        Map<CqlIdentifier, KeyspaceMetadata> keyspaceMetadata = session.getMetadata().getKeyspaces();
+        if (!keyspaceMetadata.isEmpty()) {
+            for (KeyspaceMetadata keyspace : keyspaceMetadata.values()) {
+                String name = keyspace.getName().asInternal();
+                if (isSystemKeyspace(name)) {
+                    continue;
+                }
+                keyspaces.add(new KeyspaceResponse(name, keyspace.getReplication()));
+            }
+            keyspaces.sort((k1, k2) -> k1.getName().compareTo(k2.getName()));
+            return keyspaces;
+        }
+        
+        // Schema metadata not available on the session - read system_schema directly
+        ResultSet resultSet = executePrepared(clusterId, session,
             "SELECT keyspace_name, replication FROM system_schema.keyspaces"
         );
         
-        List<KeyspaceResponse> keyspaces = new ArrayList<>();
         for (Row row : resultSet) {
             String name = row.getString("keyspace_name");
-            
-            // Filter out system keyspaces for cleaner UI
-            // Note: Cassandra already enforces permissions - regular users won't see system keyspaces anyway
-            // This filter is mainly for admin users who might not want to see system keyspaces
-            if (name.startsWith("system_") || name.equals("system")) {
+            if (isSystemKeyspace(name)) {
                 continue;
             }
             
@@ -43,15 +84,37 @@ public class CassandraMetadataService {
         return keyspaces;
     }
     
+    static boolean isSystemKeyspace(String name) {
+        // Filter out system keyspaces for cleaner UI
+        // Note: Cassandra already enforces permissions - regular users won't see system keyspaces anyway
+        // This filter is mainly for admin users who might not want to see system keyspaces
+        return name.startsWith("system_") || name.equals("system");
+    }
+    
     public List<TableResponse> getTables(String clusterId, String keyspaceName) {
         CqlSession session = connectionManager.getSession(clusterId);
+        return schemaMetadataCache.getTables(clusterId, keyspaceName,
+            () -> loadTables(clusterId, session, keyspaceName));
+    }
+    
+    private List<TableResponse> loadTables(String clusterId, CqlSession session, String keyspaceName) {
+        List<TableResponse> tables = new ArrayList<>();
         
-        ResultSet resultSet = session.execute(
+        Optional<KeyspaceMetadata> keyspace = session.getMetadata()
+                .getKeyspace(CqlIdentifier.fromInternal(keyspaceName));
+        if (keyspace.isPresent()) {
+            for (CqlIdentifier tableName : keyspace.get().getTables().keySet()) {
+                tables.add(new TableResponse(tableName.asInternal()));
+            }
+            tables.sort((t1, t2) -> t1.getName().compareTo(t2.getName()));
+            return tables;
+        }
+        
+        ResultSet resultSet = executePrepared(clusterId, session,
             "SELECT table_name FROM system_schema.tables WHERE keyspace_name = ?",
             keyspaceName
         );
         
-        List<TableResponse> tables = new ArrayList<>();
         for (Row row : resultSet) {
             String name = row.getString("table_name");
             tables.add(new TableResponse(name));
@@ -62,25 +125,105 @@ public class CassandraMetadataService {
     
     public TableDetailsResponse getTableDetails(String clusterId, String keyspaceName, String tableName) {
         CqlSession session = connectionManager.getSession(clusterId);
+        return schemaMetadataCache.getTableDetails(clusterId, keyspaceName, tableName,
+            () -> loadTableDetails(clusterId, session, keyspaceName, tableName));
+    }
+    
+    private TableDetailsResponse loadTableDetails(String clusterId, CqlSession session, String keyspaceName, String tableName) {
+        Optional<TableMetadata> tableMetadata = session.getMetadata()
+                .getKeyspace(CqlIdentifier.fromInternal(keyspaceName))
+                .flatMap(keyspace -> keyspace.getTable(CqlIdentifier.fromInternal(tableName)));
         
+        // The lookups are independent - issue them together so the total is the slowest one
+        CompletableFuture<List<TableDetailsResponse.ColumnInfo>> columnsFuture;
+        CompletableFuture<List<TableDetailsResponse.IndexInfo>> indexesFuture;
+        if (tableMetadata.isPresent()) {
+            columnsFuture = CompletableFuture.completedFuture(buildColumns(tableMetadata.get()));
+            indexesFuture = CompletableFuture.completedFuture(buildIndexes(tableMetadata.get()));
+        } else {
+            columnsFuture = loadColumns(clusterId, session, keyspaceName, tableName);
+            indexesFuture = loadIndexes(clusterId, session, keyspaceName, tableName);
+        }
+        CompletableFuture<List<TableDetailsResponse.IndexInfo>> solrFuture =
+            loadSolrIndexes(clusterId, session, keyspaceName, tableName);
+        
+        List<TableDetailsResponse.ColumnInfo> columns = columnsFuture.join();
+        sortColumns(columns);
+        
+        List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>(indexesFuture.join());
+        indexes.addAll(solrFuture.join());
+        
+        return new TableDetailsResponse(tableName, keyspaceName, columns, indexes);
+    }
+    
+    private List<TableDetailsResponse.ColumnInfo> buildColumns(TableMetadata table) {
+        // Mirror the kind/position values stored in system_schema.columns
+        List<TableDetailsResponse.ColumnInfo> columns = new ArrayList<>();
+        int position = 0;
+        for (ColumnMetadata column : table.getPartitionKey()) {
+            columns.add(toColumnInfo(column, "partition_key", position++));
+        }
+        position = 0;
+        for (ColumnMetadata column : table.getClusteringColumns().keySet()) {
+            columns.add(toColumnInfo(column, "clustering", position++));
+        }
+        for (ColumnMetadata column : table.getColumns().values()) {
+            if (table.getPrimaryKey().contains(column)) {
+                continue;
+            }
+            columns.add(toColumnInfo(column, column.isStatic() ? "static" : "regular", -1));
+        }
+        return columns;
+    }
+    
+    private TableDetailsResponse.ColumnInfo toColumnInfo(ColumnMetadata column, String kind, int position) {
+        return new TableDetailsResponse.ColumnInfo(
+            column.getName().asInternal(),
+            column.getType().asCql(true, true),
+            kind,
+            position
+        );
+    }
+    
+    private List<TableDetailsResponse.IndexInfo> buildIndexes(TableMetadata table) {
+        List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>();
+        for (IndexMetadata index : table.getIndexes().values()) {
+            String indexName = index.getName().asInternal();
+            Map<String, String> options = index.getOptions();
+            indexes.add(new TableDetailsResponse.IndexInfo(
+                indexName,
+                extractColumnFromIndex(indexName, options),
+                index.getKind().name(),
+                "CQL",
+                options != null ? options.toString() : ""
+            ));
+        }
+        return indexes;
+    }
+    
+    private CompletableFuture<List<TableDetailsResponse.ColumnInfo>> loadColumns(String clusterId, CqlSession session,
+                                                                               String keyspaceName, String tableName) {
         // Get columns
-        ResultSet columnsResult = session.execute(
+        return queryAsync(clusterId, session,
             "SELECT column_name, type, kind, position " +
             "FROM system_schema.columns " +
             "WHERE keyspace_name = ? AND table_name = ?",
             keyspaceName, tableName
-        );
-        
-        List<TableDetailsResponse.ColumnInfo> columns = new ArrayList<>();
-        for (Row row : columnsResult) {
-            columns.add(new TableDetailsResponse.ColumnInfo(
-                row.getString("column_name"),
-                row.getString("type"),
-                row.getString("kind"),
-                row.getInt("position")
-            ));
-        }
-        
+        ).thenApply(rows -> {
+            List<TableDetailsResponse.ColumnInfo> columns = new ArrayList<>();
+            for (Row row : rows) {
+                columns.add(new TableDetailsResponse.ColumnInfo(
+                    row.getString("column_name"),
+                    row.getString("type"),
+                    row.getString("kind"),
+                    row.getInt("position")
+                ));
+            }
+            return columns;
+        });
+    }
+    
+    private void sortColumns(List<TableDetailsResponse.ColumnInfo> columns) {
         // Sort columns: Partition Key -> Clustering Key -> Regular columns
         // Within each group, sort alphabetically by name (ascending)
         columns.sort((c1, c2) -> {
@@ -99,19 +242,19 @@ public class CassandraMetadataService {
             // Within same group, sort alphabetically by name (ascending)
             return c1.getName().compareToIgnoreCase(c2.getName());
         });
-        
+    }
+    
+    private CompletableFuture<List<TableDetailsResponse.IndexInfo>> loadIndexes(String clusterId, CqlSession session,
+                                                                              String keyspaceName, String tableName) {
         // Get CQL secondary indexes
-        List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>();
-        
-        try {
-            ResultSet indexesResult = session.execute(
-                "SELECT index_name, kind, options " +
-                "FROM system_schema.indexes " +
-                "WHERE keyspace_name = ? AND table_name = ?",
-                keyspaceName, tableName
-            );
-            
-            for (Row row : indexesResult) {
+        return queryAsync(clusterId, session,
+            "SELECT index_name, kind, options " +
+            "FROM system_schema.indexes " +
+            "WHERE keyspace_name = ? AND table_name = ?",
+            keyspaceName, tableName
+        ).thenApply(rows -> {
+            List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>();
+            for (Row row : rows) {
                 String indexName = row.getString("index_name");
                 String kind = row.getString("kind");
                 Map<String, String> options = row.getMap("options", String.class, String.class);
@@ -128,106 +271,171 @@ public class CassandraMetadataService {
                     optionsStr
                 ));
             }
-        } catch (Exception e) {
+            return indexes;
+        }).exceptionally(e -> {
             // If query fails (e.g., permissions), continue without CQL indexes
-            System.err.println("Error fetching CQL indexes: " + e.getMessage());
-        }
+            System.err.println("Error fetching CQL indexes: " + unwrap(e).getMessage());
+            return new ArrayList<>();
+        });
+    }
+    
+    private CompletableFuture<List<TableDetailsResponse.IndexInfo>> loadSolrIndexes(String clusterId, CqlSession session,
+                                                                                  String keyspaceName, String tableName) {
+        // In DSE 5.1, Solr cores are typically named: keyspace_table_name
+        String solrCoreName = keyspaceName + "_" + tableName;
         
-        // Get Solr/Search indexes from DSE Search (if available)
-        try {
-            // Check if dse_search keyspace exists (DSE Search is enabled)
-            ResultSet dseSearchCheck = session.execute(
-                "SELECT keyspace_name FROM system_schema.keyspaces WHERE keyspace_name = 'dse_search'"
-            );
-            
-            if (dseSearchCheck.iterator().hasNext()) {
-                // Query Solr resources to find indexes for this table
-                // In DSE 5.1, Solr cores are typically named: keyspace_table_name
-                String solrCoreName = keyspaceName + "_" + tableName;
-                
-                try {
-                    ResultSet solrResources = session.execute(
+        return solrLookup(clusterId, session).thenCompose(lookup -> {
+            switch (lookup) {
+                case BY_CORE_NAME:
+                    return queryAsync(clusterId, session,
                         "SELECT core_name, resource_name, config_name " +
                         "FROM dse_search.solr_resources " +
                         "WHERE core_name = ?",
                         solrCoreName
-                    );
-                    
-                    for (Row row : solrResources) {
-                        String coreName = row.getString("core_name");
-                        String resourceName = row.getString("resource_name");
-                        String configName = row.getString("config_name");
-                        
-                        indexes.add(new TableDetailsResponse.IndexInfo(
-                            coreName,
-                            "N/A",  // Solr indexes don't map to a single column
-                            "SOLR",
-                            "SOLR",
-                            String.format("resource=%s, config=%s", resourceName, configName)
-                        ));
-                    }
-                } catch (Exception e) {
-                    // Try alternative query - some DSE versions use different table structure
-                    try {
-                        // Alternative: Query all solr_resources and filter
-                        ResultSet allSolrResources = session.execute(
-                            "SELECT core_name, resource_name, config_name FROM dse_search.solr_resources"
-                        );
-                        
-                        for (Row row : allSolrResources) {
-                            String coreName = row.getString("core_name");
-                            // Match by pattern: keyspace_table or keyspace_table_name
-                            if (coreName.startsWith(keyspaceName + "_" + tableName) || 
-                                coreName.equals(keyspaceName + "_" + tableName)) {
-                                String resourceName = row.getString("resource_name");
-                                String configName = row.getString("config_name");
-                                
-                                indexes.add(new TableDetailsResponse.IndexInfo(
-                                    coreName,
-                                    "N/A",
-                                    "SOLR",
-                                    "SOLR",
-                                    String.format("resource=%s, config=%s", resourceName, configName)
-                                ));
-                            }
+                    ).thenApply(rows -> {
+                        List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>();
+                        for (Row row : rows) {
+                            indexes.add(toSolrIndex(row));
                         }
-                    } catch (Exception e2) {
-                        System.err.println("Error fetching Solr indexes: " + e2.getMessage());
-                    }
-                }
+                        return indexes;
+                    }).exceptionallyCompose(e -> {
+                        if (!(unwrap(e) instanceof InvalidQueryException)) {
+                            return CompletableFuture.failedFuture(e);
+                        }
+                        // Some DSE versions use a different table structure - remember to scan instead
+                        schemaMetadataCache.setSolrLookup(clusterId, SchemaMetadataCache.SolrLookup.FULL_SCAN);
+                        return scanSolrIndexes(clusterId, session, solrCoreName);
+                    });
+                case FULL_SCAN:
+                    return scanSolrIndexes(clusterId, session, solrCoreName);
+                default:
+                    return CompletableFuture.completedFuture(new ArrayList<TableDetailsResponse.IndexInfo>());
             }
-        } catch (Exception e) {
-            // If dse_search doesn't exist or query fails, continue without Solr indexes
-            System.err.println("DSE Search not available or error: " + e.getMessage());
+        }).exceptionally(e -> {
+            System.err.println("Error fetching Solr indexes: " + unwrap(e).getMessage());
+            return new ArrayList<>();
+        });
+    }
+    
+    /**
+     * Finds out once per cluster whether DSE Search is enabled. The schema tables are
+     * asked rather than the driver's metadata, which may be filtered or not loaded yet.
+     */
+    private CompletableFuture<SchemaMetadataCache.SolrLookup> solrLookup(String clusterId, CqlSession session) {
+        SchemaMetadataCache.SolrLookup known = schemaMetadataCache.getSolrLookup(clusterId);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
         }
         
-        return new TableDetailsResponse(tableName, keyspaceName, columns, indexes);
+        return queryAsync(clusterId, session,
+            "SELECT keyspace_name FROM system_schema.keyspaces WHERE keyspace_name = 'dse_search'"
+        ).thenApply(rows -> {
+            SchemaMetadataCache.SolrLookup lookup = rows.isEmpty()
+                    ? SchemaMetadataCache.SolrLookup.UNAVAILABLE
+                    : SchemaMetadataCache.SolrLookup.BY_CORE_NAME;
+            schemaMetadataCache.setSolrLookup(clusterId, lookup);
+            return lookup;
+        });
+    }
+    
+    private CompletableFuture<List<TableDetailsResponse.IndexInfo>> scanSolrIndexes(String clusterId, CqlSession session,
+                                                                                  String solrCoreName) {
+        // The full scan is done once per cluster; later tables filter the cached cores
+        List<TableDetailsResponse.IndexInfo> cached = schemaMetadataCache.getSolrIndexes(clusterId);
+        CompletableFuture<List<TableDetailsResponse.IndexInfo>> allIndexes;
+        if (cached != null) {
+            allIndexes = CompletableFuture.completedFuture(cached);
+        } else {
+            allIndexes = queryAsync(clusterId, session,
+                "SELECT core_name, resource_name, config_name FROM dse_search.solr_resources"
+            ).thenApply(rows -> {
+                List<TableDetailsResponse.IndexInfo> indexes = new ArrayList<>();
+                for (Row row : rows) {
+                    indexes.add(toSolrIndex(row));
+                }
+                schemaMetadataCache.setSolrIndexes(clusterId, indexes);
+                return indexes;
+            });
+        }
+        
+        return allIndexes.thenApply(indexes -> {
+            List<TableDetailsResponse.IndexInfo> matching = new ArrayList<>();
+            for (TableDetailsResponse.IndexInfo index : indexes) {
+                // Match by pattern: keyspace_table or keyspace_table_name
+                if (index.getName() != null && index.getName().startsWith(solrCoreName)) {
+                    matching.add(index);
+                }
+            }
+            return matching;
+        });
+    }
+    
+    private TableDetailsResponse.IndexInfo toSolrIndex(Row row) {
+        return new TableDetailsResponse.IndexInfo(
+            row.getString("core_name"),
+            "N/A",  // Solr indexes don't map to a single column
+            "SOLR",
+            "SOLR",
+            String.format("resource=%s, config=%s", row.getString("resource_name"), row.getString("config_name"))
+        );
     }
     
-    public QueryResponse getTableRecords(String clusterId, String keyspaceName, 
-                                        String tableName, int limit) {
+    public CompletableFuture<QueryResponse> getTableRecordsAsync(String clusterId, String keyspaceName,
+                                                                 String tableName, int limit) {
         CqlSession session = connectionManager.getSession(clusterId);
         
-        String query = String.format("SELECT * FROM %s.%s LIMIT %d", 
-                                     keyspaceName, tableName, limit);
+        String query = String.format("SELECT * FROM %s.%s LIMIT ?", keyspaceName, tableName);
+        
+        long startTime = System.currentTimeMillis();
         
-        return executeQuery(session, query);
+        return queryMetrics.timeAsync(clusterId, keyspaceName, "records", query, () ->
+            preparedStatementCache.prepareAsync(clusterId, session, null, query)
+                .thenCompose(prepared -> session.executeAsync(prepared.bind(limit)
+                        // Page size matches the limit so that all records arrive in a single page
+                        .setPageSize(Math.max(limit, 1))
+                        .setIdempotent(true)))
+                .toCompletableFuture())
+                .thenApply(resultSet -> toQueryResponse(resultSet, startTime));
     }
     
-    private QueryResponse executeQuery(CqlSession session, String query) {
-        long startTime = System.currentTimeMillis();
+    /**
+     * Like getTableRecordsAsync, but returns rows drawn at random from across the whole
+     * token ring instead of the first rows of the first partitions.
+     */
+    public CompletableFuture<QueryResponse> getTableSampleAsync(String clusterId, String keyspaceName,
+                                                                String tableName, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
         
-        ResultSet resultSet = session.execute(query);
+        List<String> columns = new ArrayList<>();
+        for (ColumnMetadata column : tableSampler.selectColumns(table)) {
+            columns.add(column.getName().asCql(true));
+        }
+        String query = String.format("SELECT * FROM %s.%s", keyspaceName, tableName);
         
+        long startTime = System.currentTimeMillis();
+        
+        return queryMetrics.timeAsync(clusterId, keyspaceName, "sample", query, () ->
+            tableSampler.sample(clusterId, session, table, limit))
+                .thenApply(rows -> toQueryResponse(columns, rows, startTime));
+    }
+    
+    private QueryResponse toQueryResponse(AsyncResultSet resultSet, long startTime) {
         List<String> columns = new ArrayList<>();
         if (resultSet.getColumnDefinitions() != null) {
             for (int i = 0; i < resultSet.getColumnDefinitions().size(); i++) {
                 columns.add(resultSet.getColumnDefinitions().get(i).getName().asCql(true));
             }
         }
-        
+        return toQueryResponse(columns, resultSet.currentPage(), startTime);
+    }
+    
+    private QueryResponse toQueryResponse(List<String> columns, Iterable<Row> resultRows, long startTime) {
         List<Map<String, Object>> rows = new ArrayList<>();
-        for (Row row : resultSet) {
+        for (Row row : resultRows) {
             Map<String, Object> rowData = new HashMap<>();
             for (int i = 0; i < columns.size(); i++) {
                 String columnName = columns.get(i);
@@ -239,7 +447,35 @@ public class CassandraMetadataService {
         
         long executionTime = System.currentTimeMillis() - startTime;
         
-        return new QueryResponse(columns, rows, rows.size(), executionTime, null);
+        return new QueryResponse(columns, rows, rows.size(), executionTime, null, null);
+    }
+    
+    private ResultSet executePrepared(String clusterId, CqlSession session, String query, Object... values) {
+        // Metadata lookups repeat for every tree expansion - prepare once, then bind
+        PreparedStatement prepared = preparedStatementCache.prepare(clusterId, session, null, query);
+        return session.execute(prepared.bind(values).setIdempotent(true));
+    }
+    
+    private CompletableFuture<List<Row>> queryAsync(String clusterId, CqlSession session, String query,
+                                                    Object... values) {
+        return preparedStatementCache.prepareAsync(clusterId, session, null, query)
+                .thenCompose(prepared -> session.executeAsync(prepared.bind(values).setIdempotent(true)))
+                .thenCompose(resultSet -> collectRows(resultSet, new ArrayList<>()));
+    }
+    
+    private CompletableFuture<List<Row>> collectRows(AsyncResultSet resultSet, List<Row> rows) {
+        for (Row row : resultSet.currentPage()) {
+            rows.add(row);
+        }
+        if (resultSet.hasMorePages()) {
+            return resultSet.fetchNextPage().toCompletableFuture()
+                    .thenCompose(next -> collectRows(next, rows));
+        }
+        return CompletableFuture.completedFuture(rows);
+    }
+    
+    private Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
     
     private String extractColumnFromIndex(String indexName, Map<String, String> options) {
@@ -1,19 +1,35 @@
 package com.cassandra.browser.service;
 
+import com.cassandra.browser.model.response.ColumnarQueryResponse;
 import com.cassandra.browser.model.response.QueryResponse;
+import com.cassandra.browser.util.CqlValueConverter;
 import com.cassandra.browser.util.QueryValidator;
 import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PagingState;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
-import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 @Service
 public class CassandraQueryService {
@@ -24,71 +40,270 @@ public class CassandraQueryService {
     @Autowired
     private QueryValidator queryValidator;
     
-    public QueryResponse executeQuery(String clusterId, String keyspaceName, String query) {
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private QueryMetrics queryMetrics;
+    
+    /**
+     * Executes a single page of the query without blocking the calling thread. Passing the
+     * pagingState returned by the previous page resumes the scan at the same token position
+     * instead of re-reading from the start.
+     */
+    public CompletableFuture<QueryResponse> executeQueryAsync(String clusterId, String keyspaceName,
+                                                              String query, List<Object> parameters,
+                                                              Integer pageSize, String pagingState) {
+        long startTime = System.currentTimeMillis();
+        return executePage(clusterId, keyspaceName, query, parameters, pageSize, pagingState, "execute")
+                .thenApply(resultSet -> toQueryResponse(resultSet, startTime))
+                .exceptionally(e -> errorResponse(e, startTime));
+    }
+    
+    /**
+     * Same as executeQueryAsync, but returns the page in the columnar encoding.
+     */
+    public CompletableFuture<ColumnarQueryResponse> executeColumnarQueryAsync(String clusterId,
+                                                                              String keyspaceName,
+                                                                              String query,
+                                                                              List<Object> parameters,
+                                                                              Integer pageSize,
+                                                                              String pagingState) {
+        long startTime = System.currentTimeMillis();
+        CodecRegistry codecRegistry = connectionManager.getSession(clusterId).getContext().getCodecRegistry();
+        return executePage(clusterId, keyspaceName, query, parameters, pageSize, pagingState, "execute-columnar")
+                .thenApply(resultSet -> toColumnarResponse(resultSet, codecRegistry, startTime))
+                .exceptionally(e -> {
+                    ColumnarQueryResponse response = ColumnarQueryResponse.error(rootCause(e).getMessage());
+                    response.setExecutionTime(System.currentTimeMillis() - startTime);
+                    return response;
+                });
+    }
+    
+    private CompletableFuture<AsyncResultSet> executePage(String clusterId, String keyspaceName,
+                                                          String query, List<Object> parameters,
+                                                          Integer pageSize, String pagingState,
+                                                          String endpoint) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        
         // Validate query
-        queryValidator.validateQuery(query);
+        QueryValidator.QueryClass queryClass = queryValidator.validateQuery(session, keyspaceName, query);
+        int resolvedPageSize = queryValidator.resolvePageSize(pageSize);
         
+        // Callbacks run on driver I/O threads - binding and converting one page never blocks
+        return queryMetrics.timeAsync(clusterId, keyspaceName, endpoint, query, () ->
+            preparedStatementCache.prepareAsync(clusterId, session, keyspaceName, query)
+                .thenCompose(prepared -> {
+                    BoundStatement statement = bind(session, prepared, parameters, resolvedPageSize,
+                                                    queryClass.getTimeout());
+                    
+                    // Resume from the cursor of the previous page (validated against this statement)
+                    if (pagingState != null && !pagingState.isEmpty()) {
+                        statement = statement.setPagingState(PagingState.fromString(pagingState), session);
+                    }
+                    
+                    return session.executeAsync(statement);
+                })
+                .toCompletableFuture());
+    }
+    
+    /**
+     * Streams the whole result as NDJSON: a header line with the columns, one line per row and
+     * a trailer line with the row count and execution time. The next page is fetched in the
+     * background while the current one is written, so at most two pages are held in memory.
+     */
+    public StreamingResponseBody streamQuery(String clusterId, String keyspaceName, String query,
+                                             List<Object> parameters, Integer pageSize) {
+        // Validate up front so that bad queries are rejected before the response is committed
         CqlSession session = connectionManager.getSession(clusterId);
+        QueryValidator.QueryClass queryClass = queryValidator.validateQuery(session, keyspaceName, query);
+        int resolvedPageSize = queryValidator.resolveStreamPageSize(pageSize);
+        int maxRows = queryClass.getMaxStreamRows();
         
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            // Build statement with timeout and keyspace
-            SimpleStatement statement = SimpleStatement.newInstance(query)
-                    .setKeyspace(com.datastax.oss.driver.api.core.CqlIdentifier.fromCql(keyspaceName))
-                    .setTimeout(Duration.ofSeconds(30))
-                    .setPageSize(queryValidator.getMaxResultSize());
+        return outputStream -> {
+            long startTime = System.currentTimeMillis();
+            long rowCount = 0;
+            QueryMetrics.Handle timing = queryMetrics.start(clusterId, keyspaceName, "stream", query);
+            boolean success = false;
             
-            ResultSet resultSet = session.execute(statement);
-            
-            // Extract columns
-            List<String> columns = new ArrayList<>();
-            if (resultSet.getColumnDefinitions() != null) {
-                for (int i = 0; i < resultSet.getColumnDefinitions().size(); i++) {
-                    columns.add(resultSet.getColumnDefinitions().get(i).getName().asCql(true));
-                }
-            }
-            
-            // Extract rows (limit to max result size)
-            List<Map<String, Object>> rows = new ArrayList<>();
-            int count = 0;
-            for (Row row : resultSet) {
-                if (count >= queryValidator.getMaxResultSize()) {
-                    break;
-                }
+            try {
+                PreparedStatement prepared = preparedStatementCache
+                        .prepareAsync(clusterId, session, keyspaceName, query).get();
+                BoundStatement statement = bind(session, prepared, parameters, resolvedPageSize,
+                                                queryClass.getTimeout());
+                
+                AsyncResultSet page = session.executeAsync(statement).toCompletableFuture().get();
                 
-                Map<String, Object> rowData = new HashMap<>();
-                for (int i = 0; i < columns.size(); i++) {
-                    String columnName = columns.get(i);
-                    Object value = row.getObject(i);
-                    // Convert value to string representation
-                    if (value != null) {
-                        if (value instanceof java.util.List) {
-                            rowData.put(columnName, value.toString());
-                        } else if (value instanceof java.util.Map) {
-                            rowData.put(columnName, value.toString());
-                        } else {
-                            rowData.put(columnName, value.toString());
+                List<String> columns = extractColumns(page.getColumnDefinitions());
+                Map<String, Object> header = new LinkedHashMap<>();
+                header.put("columns", columns);
+                writeLine(outputStream, header);
+                
+                while (true) {
+                    // Request the next page before writing the current one
+                    CompletableFuture<AsyncResultSet> nextPage = page.hasMorePages()
+                            ? page.fetchNextPage().toCompletableFuture()
+                            : null;
+                    
+                    for (Row row : page.currentPage()) {
+                        if (rowCount >= maxRows) {
+                            break;
+                        }
+                        writeLine(outputStream, toRowData(row, columns));
+                        rowCount++;
+                    }
+                    outputStream.flush();
+                    
+                    if (nextPage == null || rowCount >= maxRows) {
+                        if (nextPage != null) {
+                            nextPage.cancel(false);
                         }
-                    } else {
-                        rowData.put(columnName, null);
+                        break;
                     }
+                    page = nextPage.get();
                 }
-                rows.add(rowData);
-                count++;
+                
+                Map<String, Object> trailer = new LinkedHashMap<>();
+                trailer.put("rowCount", rowCount);
+                trailer.put("executionTime", System.currentTimeMillis() - startTime);
+                writeLine(outputStream, trailer);
+                success = true;
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writeError(outputStream, e.getMessage(), rowCount, startTime);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                writeError(outputStream, cause.getMessage(), rowCount, startTime);
+            } catch (RuntimeException e) {
+                writeError(outputStream, e.getMessage(), rowCount, startTime);
+            } finally {
+                timing.stop(success);
             }
-            
-            long executionTime = System.currentTimeMillis() - startTime;
-            
-            return new QueryResponse(columns, rows, rows.size(), executionTime, null);
-            
-        } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
-            QueryResponse response = new QueryResponse();
-            response.setError(e.getMessage());
-            response.setExecutionTime(executionTime);
-            return response;
+        };
+    }
+    
+    private QueryResponse toQueryResponse(AsyncResultSet resultSet, long startTime) {
+        List<String> columns = extractColumns(resultSet.getColumnDefinitions());
+        
+        // currentPage() never triggers a fetch - the next page is only read on the next request
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Row row : resultSet.currentPage()) {
+            rows.add(toRowData(row, columns));
+        }
+        
+        long executionTime = System.currentTimeMillis() - startTime;
+        
+        // Safe paging state is null once the last page has been returned
+        PagingState nextPagingState = resultSet.getExecutionInfo().getSafePagingState();
+        String nextCursor = nextPagingState != null ? nextPagingState.toString() : null;
+        
+        return new QueryResponse(columns, rows, rows.size(), executionTime, null, nextCursor);
+    }
+    
+    private ColumnarQueryResponse toColumnarResponse(AsyncResultSet resultSet, CodecRegistry codecRegistry,
+                                                     long startTime) {
+        ColumnDefinitions definitions = resultSet.getColumnDefinitions();
+        List<ColumnarQueryResponse.Column> columns = new ArrayList<>(definitions.size());
+        List<List<Object>> values = new ArrayList<>(definitions.size());
+        for (int i = 0; i < definitions.size(); i++) {
+            columns.add(new ColumnarQueryResponse.Column(
+                definitions.get(i).getName().asCql(true), definitions.get(i).getType().asCql(true, true)));
+            values.add(new ArrayList<>(resultSet.remaining()));
+        }
+        
+        int rowCount = 0;
+        for (Row row : resultSet.currentPage()) {
+            for (int i = 0; i < definitions.size(); i++) {
+                values.get(i).add(valueConverter.toJsonValue(
+                    row.getObject(i), definitions.get(i).getType(), codecRegistry));
+            }
+            rowCount++;
         }
+        
+        PagingState nextPagingState = resultSet.getExecutionInfo().getSafePagingState();
+        String nextCursor = nextPagingState != null ? nextPagingState.toString() : null;
+        
+        return new ColumnarQueryResponse(columns, values, rowCount,
+            System.currentTimeMillis() - startTime, null, nextCursor);
+    }
+    
+    private QueryResponse errorResponse(Throwable e, long startTime) {
+        QueryResponse response = new QueryResponse();
+        response.setError(rootCause(e).getMessage());
+        response.setExecutionTime(System.currentTimeMillis() - startTime);
+        return response;
+    }
+    
+    private Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
+    private BoundStatement bind(CqlSession session, PreparedStatement prepared,
+                                List<Object> parameters, int pageSize, Duration timeout) {
+        ColumnDefinitions variables = prepared.getVariableDefinitions();
+        int provided = parameters != null ? parameters.size() : 0;
+        if (variables.size() != provided) {
+            throw new IllegalArgumentException(String.format(
+                "Query expects %d parameter(s) but %d were provided", variables.size(), provided));
+        }
+        
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        BoundStatementBuilder builder = prepared.boundStatementBuilder();
+        for (int i = 0; i < provided; i++) {
+            DataType type = variables.get(i).getType();
+            builder.set(i, valueConverter.convert(parameters.get(i), type, codecRegistry),
+                        codecRegistry.codecFor(type));
+        }
+        
+        // The timeout comes from the query class; the keyspace is carried by the prepared statement.
+        // Only SELECTs pass validation, so retries and speculative executions are safe
+        return builder
+                .setTimeout(timeout)
+                .setPageSize(pageSize)
+                .setIdempotence(true)
+                .build();
+    }
+    
+    private List<String> extractColumns(ColumnDefinitions columnDefinitions) {
+        List<String> columns = new ArrayList<>();
+        if (columnDefinitions != null) {
+            for (int i = 0; i < columnDefinitions.size(); i++) {
+                columns.add(columnDefinitions.get(i).getName().asCql(true));
+            }
+        }
+        return columns;
+    }
+    
+    private Map<String, Object> toRowData(Row row, List<String> columns) {
+        Map<String, Object> rowData = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = row.getObject(i);
+            // Convert value to string representation
+            rowData.put(columns.get(i), value != null ? value.toString() : null);
+        }
+        return rowData;
+    }
+    
+    private void writeLine(OutputStream outputStream, Object value) throws IOException {
+        // writeValue(OutputStream) would close the response stream, so serialise to bytes first
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
+    }
+    
+    private void writeError(OutputStream outputStream, String error, long rowCount, long startTime)
+            throws IOException {
+        Map<String, Object> trailer = new LinkedHashMap<>();
+        trailer.put("rowCount", rowCount);
+        trailer.put("executionTime", System.currentTimeMillis() - startTime);
+        trailer.put("error", error);
+        writeLine(outputStream, trailer);
+        outputStream.flush();
     }
 }
-
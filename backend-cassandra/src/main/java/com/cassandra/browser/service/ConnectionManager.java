@@ -1,9 +1,13 @@
 package com.cassandra.browser.service;
 
+import com.cassandra.browser.config.DriverProfileProperties;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.CqlSessionBuilder;
 import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
 import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.net.InetSocketAddress;
@@ -16,13 +20,29 @@ public class ConnectionManager {
     private final Map<String, CqlSession> sessions = new ConcurrentHashMap<>();
     private final Map<String, ConnectionInfo> connectionInfo = new ConcurrentHashMap<>();
     
+    @Autowired
+    private DriverProfileProperties driverProfileProperties;
+    
+    @Autowired
+    private SchemaMetadataCache schemaMetadataCache;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private QueryMetrics queryMetrics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     public CqlSession createSession(String clusterId, String datacenter, 
                                    java.util.List<String> hosts, 
                                    String username, String password,
-                                   String keyspace) {
+                                   String keyspace, String profileName) {
+        DriverProfileProperties.Profile profile = driverProfileProperties.getProfile(profileName);
+        
         // Build driver configuration with increased timeouts
-        com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder configBuilder = 
-            DriverConfigLoader.programmaticBuilder();
+        ProgrammaticDriverConfigLoaderBuilder configBuilder = DriverConfigLoader.programmaticBuilder();
         
         // Connection timeout (how long to wait to establish connection)
         configBuilder.withDuration(DefaultDriverOption.CONNECTION_CONNECT_TIMEOUT, Duration.ofSeconds(30));
@@ -43,16 +63,26 @@ public class ConnectionManager {
         
         // Enable schema metadata but with longer timeouts
         configBuilder.withBoolean(DefaultDriverOption.METADATA_SCHEMA_ENABLED, true);
+        // Only system keyspaces are left out, the same ones the browser hides. The driver default also
+        // drops dse_*, solr_admin and OpsCenter, which the tree lists and DSE Search detection watches
+        configBuilder.withStringList(DefaultDriverOption.METADATA_SCHEMA_REFRESHED_KEYSPACES, java.util.List.of(
+            "!system", "!/^system_.*/"));
         
-        // Connection pool settings
-        configBuilder.withInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE, 1);
-        configBuilder.withInt(DefaultDriverOption.CONNECTION_POOL_REMOTE_SIZE, 1);
+        // Pool, throttling, speculative execution and load balancing come from the profile
+        applyProfile(configBuilder, profile);
+        
+        // Driver metrics go to the application's Micrometer registry, tagged with the cluster id
+        applyMetrics(configBuilder, clusterId);
         
         // Note: Consistency level uses default (ONE) - no need to set explicitly
         
         CqlSessionBuilder builder = CqlSession.builder()
                 .withLocalDatacenter(datacenter)
-                .withConfigLoader(configBuilder.build());
+                .withConfigLoader(configBuilder.build())
+                .withMetricRegistry(meterRegistry)
+                // Keep the browser's schema cache in sync with schema change events
+                .addSchemaChangeListener(schemaMetadataCache.createListener(clusterId))
+                .addSchemaChangeListener(preparedStatementCache.createListener(clusterId));
         
         // Add contact points
         for (String host : hosts) {
@@ -79,6 +109,79 @@ public class ConnectionManager {
         return session;
     }
     
+    private void applyMetrics(ProgrammaticDriverConfigLoaderBuilder configBuilder, String clusterId) {
+        configBuilder.withString(DefaultDriverOption.SESSION_NAME, clusterId);
+        configBuilder.withString(DefaultDriverOption.METRICS_FACTORY_CLASS, "MicrometerMetricsFactory");
+        // Tagging ids give one metric name per measurement with session and node as tags
+        configBuilder.withString(DefaultDriverOption.METRICS_ID_GENERATOR_CLASS, "TaggingMetricIdGenerator");
+        configBuilder.withString(DefaultDriverOption.METRICS_ID_GENERATOR_PREFIX, "cassandra");
+        configBuilder.withStringList(DefaultDriverOption.METRICS_SESSION_ENABLED, java.util.List.of(
+            "connected-nodes", "cql-requests", "cql-client-timeouts", "bytes-sent", "bytes-received",
+            "throttling.delay", "throttling.queue-size", "throttling.errors"));
+        configBuilder.withStringList(DefaultDriverOption.METRICS_NODE_ENABLED, java.util.List.of(
+            "pool.open-connections", "pool.available-streams", "pool.in-flight", "pool.orphaned-streams",
+            "cql-messages", "retries.total", "speculative-executions",
+            "errors.request.read-timeouts", "errors.request.unavailables", "errors.connection.init"));
+    }
+    
+    private void applyProfile(ProgrammaticDriverConfigLoaderBuilder configBuilder,
+                              DriverProfileProperties.Profile profile) {
+        // Connection pool settings
+        configBuilder.withInt(DefaultDriverOption.CONNECTION_POOL_LOCAL_SIZE, profile.getLocalPoolSize());
+        configBuilder.withInt(DefaultDriverOption.CONNECTION_POOL_REMOTE_SIZE, profile.getRemotePoolSize());
+        configBuilder.withInt(DefaultDriverOption.CONNECTION_MAX_REQUESTS, profile.getMaxRequestsPerConnection());
+        
+        // Request throttling - requests over the limit are queued instead of piling onto the cluster
+        String throttler = profile.getThrottler() != null ? profile.getThrottler().toLowerCase() : "none";
+        switch (throttler) {
+            case "concurrency":
+                configBuilder.withString(DefaultDriverOption.REQUEST_THROTTLER_CLASS,
+                    "ConcurrencyLimitingRequestThrottler");
+                configBuilder.withInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_CONCURRENT_REQUESTS,
+                    profile.getMaxConcurrentRequests());
+                configBuilder.withInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE,
+                    profile.getMaxQueueSize());
+                break;
+            case "rate":
+                configBuilder.withString(DefaultDriverOption.REQUEST_THROTTLER_CLASS,
+                    "RateLimitingRequestThrottler");
+                configBuilder.withInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_REQUESTS_PER_SECOND,
+                    profile.getMaxRequestsPerSecond());
+                configBuilder.withInt(DefaultDriverOption.REQUEST_THROTTLER_MAX_QUEUE_SIZE,
+                    profile.getMaxQueueSize());
+                configBuilder.withDuration(DefaultDriverOption.REQUEST_THROTTLER_DRAIN_INTERVAL,
+                    Duration.ofMillis(profile.getDrainIntervalMillis()));
+                break;
+            case "none":
+                configBuilder.withString(DefaultDriverOption.REQUEST_THROTTLER_CLASS,
+                    "PassThroughRequestThrottler");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown request throttler: " + profile.getThrottler());
+        }
+        
+        // Speculative executions only apply to statements marked idempotent (all browser reads)
+        if (profile.getSpeculativeMaxExecutions() > 1) {
+            configBuilder.withString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS,
+                "ConstantSpeculativeExecutionPolicy");
+            configBuilder.withInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX,
+                profile.getSpeculativeMaxExecutions());
+            configBuilder.withDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY,
+                Duration.ofMillis(profile.getSpeculativeDelayMillis()));
+        } else {
+            configBuilder.withString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS,
+                "NoSpeculativeExecutionPolicy");
+        }
+        
+        // Load balancing - token-aware routing needs bound statements with routing keys
+        configBuilder.withString(DefaultDriverOption.LOAD_BALANCING_POLICY_CLASS,
+            profile.getLoadBalancingPolicy());
+        configBuilder.withBoolean(DefaultDriverOption.LOAD_BALANCING_POLICY_SLOW_AVOIDANCE,
+            profile.isSlowReplicaAvoidance());
+        configBuilder.withInt(DefaultDriverOption.LOAD_BALANCING_DC_FAILOVER_MAX_NODES_PER_REMOTE_DC,
+            profile.getRemoteDcFailoverNodes());
+    }
+    
     public CqlSession getSession(String clusterId) {
         CqlSession session = sessions.get(clusterId);
         if (session == null) {
@@ -93,6 +196,9 @@ public class ConnectionManager {
             session.close();
         }
         connectionInfo.remove(clusterId);
+        schemaMetadataCache.evictCluster(clusterId);
+        preparedStatementCache.evictCluster(clusterId);
+        queryMetrics.evictCluster(clusterId);
     }
     
     public void storeConnectionInfo(String clusterId, ConnectionInfo info) {
@@ -115,16 +221,19 @@ public class ConnectionManager {
         private String name;
         private String datacenter;
         private java.util.List<String> hosts;
+        private String profile;
         
-        public ConnectionInfo(String name, String datacenter, java.util.List<String> hosts) {
+        public ConnectionInfo(String name, String datacenter, java.util.List<String> hosts, String profile) {
             this.name = name;
             this.datacenter = datacenter;
             this.hosts = hosts;
+            this.profile = profile;
         }
         
         public String getName() { return name; }
         public String getDatacenter() { return datacenter; }
         public java.util.List<String> getHosts() { return hosts; }
+        public String getProfile() { return profile; }
     }
 }
 
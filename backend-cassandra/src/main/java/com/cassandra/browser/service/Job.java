@@ -0,0 +1,125 @@
+package com.cassandra.browser.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-running background job over the token ranges of a table.
+ * Progress is tracked per range so that a cancelled or failed job can be
+ * resumed without re-reading the ranges that already completed.
+ */
+public class Job {
+    
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+    
+    private final String id = UUID.randomUUID().toString();
+    private final String type;
+    private final String clusterId;
+    private final String keyspace;
+    private final String table;
+    
+    private volatile Status status = Status.PENDING;
+    private volatile boolean cancelRequested;
+    private volatile int totalRanges;
+    private final Map<Integer, Long> completedRanges = new ConcurrentHashMap<>();
+    private final AtomicLong rowCount = new AtomicLong();
+    
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile long runStartedAt;
+    private volatile long rowsAtRunStart;
+    private volatile String error;
+    private volatile Object result;
+    private volatile Runnable task;
+    private volatile boolean resumable = true;
+    
+    public Job(String type, String clusterId, String keyspace, String table) {
+        this.type = type;
+        this.clusterId = clusterId;
+        this.keyspace = keyspace;
+        this.table = table;
+    }
+    
+    void markRunning() {
+        // Rows from ranges that did not complete are read again, so drop them from the count
+        rowCount.set(completedRanges.values().stream().mapToLong(Long::longValue).sum());
+        cancelRequested = false;
+        error = null;
+        finishedAt = 0;
+        runStartedAt = System.currentTimeMillis();
+        rowsAtRunStart = rowCount.get();
+        if (startedAt == 0) {
+            startedAt = runStartedAt;
+        }
+        status = Status.RUNNING;
+    }
+    
+    void markCompleted() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+    
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        status = cancelRequested ? Status.CANCELLED : Status.FAILED;
+    }
+    
+    void markCancelled() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.CANCELLED;
+    }
+    
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+    
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+    
+    public boolean isRangeCompleted(int rangeIndex) {
+        return completedRanges.containsKey(rangeIndex);
+    }
+    
+    public void markRangeCompleted(int rangeIndex, long rows) {
+        completedRanges.put(rangeIndex, rows);
+    }
+    
+    public void addRows(long rows) {
+        rowCount.addAndGet(rows);
+    }
+    
+    public double getRowsPerSecond() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = end - runStartedAt;
+        if (runStartedAt == 0 || elapsed <= 0) {
+            return 0;
+        }
+        return (rowCount.get() - rowsAtRunStart) * 1000.0 / elapsed;
+    }
+    
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public String getClusterId() { return clusterId; }
+    public String getKeyspace() { return keyspace; }
+    public String getTable() { return table; }
+    public Status getStatus() { return status; }
+    public int getTotalRanges() { return totalRanges; }
+    public void setTotalRanges(int totalRanges) { this.totalRanges = totalRanges; }
+    public int getCompletedRangeCount() { return completedRanges.size(); }
+    public long getRowCount() { return rowCount.get(); }
+    public long getStartedAt() { return startedAt; }
+    public long getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+    public Object getResult() { return result; }
+    public void setResult(Object result) { this.result = result; }
+    Runnable getTask() { return task; }
+    public void setTask(Runnable task) { this.task = task; }
+    public boolean isResumable() { return resumable; }
+    public void setResumable(boolean resumable) { this.resumable = resumable; }
+}
@@ -0,0 +1,97 @@
+package com.cassandra.browser.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps track of background jobs and runs them off the request threads.
+ */
+@Service
+public class JobRegistry {
+    
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    
+    public Job start(Job job) {
+        if (job.getTask() == null) {
+            throw new IllegalStateException("Job has no task: " + job.getId());
+        }
+        jobs.put(job.getId(), job);
+        submit(job);
+        return job;
+    }
+    
+    public Job get(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Job not found: " + jobId);
+        }
+        return job;
+    }
+    
+    public List<Job> list() {
+        List<Job> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparingLong(Job::getStartedAt).reversed());
+        return result;
+    }
+    
+    public Job cancel(String jobId) {
+        Job job = get(jobId);
+        job.requestCancel();
+        return job;
+    }
+    
+    /**
+     * Re-runs a cancelled or failed job. Ranges that already completed are skipped.
+     * Synchronized so two concurrent resumes cannot both see the job stopped and run it twice.
+     */
+    public synchronized Job resume(String jobId) {
+        Job job = get(jobId);
+        if (!job.isResumable()) {
+            throw new IllegalArgumentException("Job cannot be resumed: " + jobId);
+        }
+        if (job.getStatus() != Job.Status.CANCELLED && job.getStatus() != Job.Status.FAILED) {
+            throw new IllegalArgumentException("Only cancelled or failed jobs can be resumed, job is "
+                + job.getStatus());
+        }
+        submit(job);
+        return job;
+    }
+    
+    public void remove(String jobId) {
+        Job job = jobs.remove(jobId);
+        if (job != null) {
+            job.requestCancel();
+        }
+    }
+    
+    private void submit(Job job) {
+        job.markRunning();
+        executor.submit(() -> {
+            try {
+                job.getTask().run();
+                if (job.isCancelRequested()) {
+                    job.markCancelled();
+                } else {
+                    job.markCompleted();
+                }
+            } catch (Exception e) {
+                job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::requestCancel);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,277 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.util.CqlValueConverter;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up many primary keys of one table. The lookup is prepared once per key shape and
+ * every key is bound with its partition key, so the driver routes it straight to a replica.
+ * Lookups run concurrently in a sliding window and results are streamed as NDJSON in the
+ * order of the input keys. Keys that stop short of the clustering columns can match a
+ * whole partition, so each key returns at most maxRowsPerKey rows and is marked as
+ * truncated when it had more.
+ */
+@Service
+public class MultiGetService {
+    
+    private static final int MAX_KEYS = 10000;
+    private static final int DEFAULT_PARALLELISM = 32;
+    private static final int MAX_PARALLELISM = 256;
+    private static final int DEFAULT_MAX_ROWS_PER_KEY = 1000;
+    private static final int MAX_ROWS_PER_KEY = 10000;
+    private static final Duration LOOKUP_TIMEOUT = Duration.ofSeconds(30);
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    @Autowired
+    private QueryMetrics queryMetrics;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private static class KeyResult {
+        private final List<Map<String, Object>> rows;
+        private final boolean truncated;
+        private final String error;
+        
+        KeyResult(List<Map<String, Object>> rows, boolean truncated, String error) {
+            this.rows = rows;
+            this.truncated = truncated;
+            this.error = error;
+        }
+    }
+    
+    public StreamingResponseBody streamMultiGet(String clusterId, String keyspaceName, String tableName,
+                                                List<List<Object>> keys, List<String> columns,
+                                                Integer parallelism, Integer maxRowsPerKey) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        int window = resolveParallelism(parallelism);
+        int maxRows = resolveMaxRowsPerKey(maxRowsPerKey);
+        
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one key is required");
+        }
+        if (keys.size() > MAX_KEYS) {
+            throw new IllegalArgumentException("At most " + MAX_KEYS + " keys can be looked up at once");
+        }
+        
+        // Validate every key up front so that bad input is rejected before the response is committed
+        List<ColumnMetadata> primaryKey = table.getPrimaryKey();
+        int partitionKeySize = table.getPartitionKey().size();
+        for (int i = 0; i < keys.size(); i++) {
+            List<Object> key = keys.get(i);
+            int size = key != null ? key.size() : 0;
+            if (size < partitionKeySize || size > primaryKey.size()) {
+                throw new IllegalArgumentException(String.format(
+                    "Key %d has %d value(s), expected between %d and %d", i, size, partitionKeySize, primaryKey.size()));
+            }
+        }
+        String selectClause = selectClause(table, columns);
+        
+        // One statement per key length - keys may stop after any clustering column
+        Map<Integer, PreparedStatement> statements = new LinkedHashMap<>();
+        for (List<Object> key : keys) {
+            statements.computeIfAbsent(key.size(), size -> preparedStatementCache.prepare(
+                clusterId, session, null, lookupQuery(table, selectClause, size)));
+        }
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        
+        return outputStream -> {
+            long startTime = System.currentTimeMillis();
+            long rowCount = 0;
+            QueryMetrics.Handle timing = queryMetrics.start(clusterId, keyspaceName, "multi-get", "select");
+            boolean success = false;
+            
+            try {
+                Deque<CompletableFuture<KeyResult>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                for (int index = 0; index < keys.size(); index++) {
+                    // Keep the window full, then write the oldest lookup as soon as it completes
+                    while (next < keys.size() && inFlight.size() < window) {
+                        List<Object> key = keys.get(next++);
+                        inFlight.add(lookup(session, statements.get(key.size()), key, maxRows, codecRegistry));
+                    }
+                    KeyResult result = inFlight.poll().join();
+                    
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("index", index);
+                    line.put("key", keys.get(index));
+                    if (result.error != null) {
+                        line.put("error", result.error);
+                    } else {
+                        line.put("rows", result.rows);
+                        if (result.truncated) {
+                            line.put("truncated", true);
+                        }
+                        rowCount += result.rows.size();
+                    }
+                    writeLine(outputStream, line);
+                    if (inFlight.isEmpty() || !inFlight.peek().isDone()) {
+                        // Nothing more to write right away - push what we have to the client
+                        outputStream.flush();
+                    }
+                }
+                
+                Map<String, Object> trailer = new LinkedHashMap<>();
+                trailer.put("keyCount", keys.size());
+                trailer.put("rowCount", rowCount);
+                trailer.put("maxRowsPerKey", maxRows);
+                trailer.put("executionTime", System.currentTimeMillis() - startTime);
+                writeLine(outputStream, trailer);
+                outputStream.flush();
+                success = true;
+            } finally {
+                timing.stop(success);
+            }
+        };
+    }
+    
+    private CompletableFuture<KeyResult> lookup(CqlSession session, PreparedStatement prepared, List<Object> key,
+                                                int maxRows, CodecRegistry codecRegistry) {
+        BoundStatement statement;
+        try {
+            // One row past the cap tells whether the key had more
+            statement = bind(prepared, key, codecRegistry).setPageSize(maxRows + 1);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new KeyResult(null, false, e.getMessage()));
+        }
+        
+        return session.executeAsync(statement).toCompletableFuture()
+                .thenCompose(resultSet -> collect(resultSet, codecRegistry, maxRows, new ArrayList<>()))
+                .thenApply(rows -> rows.size() > maxRows
+                    ? new KeyResult(rows.subList(0, maxRows), true, null)
+                    : new KeyResult(rows, false, null))
+                // A failed lookup is reported on its own line, the other keys still complete
+                .exceptionally(e -> new KeyResult(null, false,
+                    (e instanceof CompletionException && e.getCause() != null ? e.getCause() : e).getMessage()));
+    }
+    
+    private CompletableFuture<List<Map<String, Object>>> collect(AsyncResultSet resultSet,
+                                                                 CodecRegistry codecRegistry, int maxRows,
+                                                                 List<Map<String, Object>> rows) {
+        ColumnDefinitions definitions = resultSet.getColumnDefinitions();
+        for (Row row : resultSet.currentPage()) {
+            Map<String, Object> rowData = new LinkedHashMap<>();
+            for (int i = 0; i < definitions.size(); i++) {
+                rowData.put(definitions.get(i).getName().asInternal(),
+                            valueConverter.toJsonValue(row.getObject(i), definitions.get(i).getType(), codecRegistry));
+            }
+            rows.add(rowData);
+            if (rows.size() > maxRows) {
+                // Enough to report the key as truncated - later pages are not fetched
+                return CompletableFuture.completedFuture(rows);
+            }
+        }
+        if (resultSet.hasMorePages()) {
+            return resultSet.fetchNextPage().toCompletableFuture()
+                    .thenCompose(next -> collect(next, codecRegistry, maxRows, rows));
+        }
+        return CompletableFuture.completedFuture(rows);
+    }
+    
+    private BoundStatement bind(PreparedStatement prepared, List<Object> key, CodecRegistry codecRegistry) {
+        ColumnDefinitions variables = prepared.getVariableDefinitions();
+        BoundStatementBuilder builder = prepared.boundStatementBuilder();
+        for (int i = 0; i < key.size(); i++) {
+            DataType type = variables.get(i).getType();
+            Object value = valueConverter.convert(key.get(i), type, codecRegistry);
+            if (value == null) {
+                throw new IllegalArgumentException("Primary key value " + i + " is null");
+            }
+            builder.set(i, value, codecRegistry.codecFor(type));
+        }
+        // The partition key is bound, so the routing key is set and the lookup goes to a replica
+        return builder
+                .setTimeout(LOOKUP_TIMEOUT)
+                .setIdempotence(true)
+                .build();
+    }
+    
+    private String selectClause(TableMetadata table, List<String> columns) {
+        if (columns == null || columns.isEmpty()) {
+            return "*";
+        }
+        List<String> selected = new ArrayList<>();
+        for (String column : columns) {
+            CqlIdentifier identifier = CqlIdentifier.fromInternal(column);
+            if (!table.getColumn(identifier).isPresent()) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+            selected.add(identifier.asCql(true));
+        }
+        return String.join(", ", selected);
+    }
+    
+    private String lookupQuery(TableMetadata table, String selectClause, int keySize) {
+        String where = table.getPrimaryKey().subList(0, keySize).stream()
+                .map(column -> column.getName().asCql(true) + " = ?")
+                .collect(Collectors.joining(" AND "));
+        return "SELECT " + selectClause + " FROM " + table.getKeyspace().asCql(true) + "."
+            + table.getName().asCql(true) + " WHERE " + where;
+    }
+    
+    private int resolveParallelism(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PARALLELISM;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        return Math.min(requested, MAX_PARALLELISM);
+    }
+    
+    private int resolveMaxRowsPerKey(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_MAX_ROWS_PER_KEY;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Max rows per key must be at least 1");
+        }
+        return Math.min(requested, MAX_ROWS_PER_KEY);
+    }
+    
+    private void writeLine(OutputStream outputStream, Object value) throws IOException {
+        // writeValue(OutputStream) would close the response stream, so serialise to bytes first
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
+    }
+}
@@ -0,0 +1,335 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.request.PartitionScanRequest;
+import com.cassandra.browser.model.response.PartitionScanResponse;
+import com.cassandra.browser.util.CqlValueConverter;
+import com.cassandra.browser.util.RateLimiter;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the largest partitions of a table. The ring is read in parallel token ranges;
+ * rows arrive in token order, so the rows of a partition are contiguous and each
+ * partition is measured as it streams past without keeping any per-partition state.
+ * Only a bounded min-heap of the largest partitions and a size histogram are kept.
+ * Completed scans are written to disk as JSON summaries.
+ */
+@Service
+public class PartitionScanService {
+    
+    private static final int DEFAULT_TOP_PARTITIONS = 20;
+    private static final int MAX_TOP_PARTITIONS = 1000;
+    private static final int DEFAULT_LARGE_PARTITION_MB = 100;
+    private static final int SIZE_BUCKETS = 64; // 0, 1, 2-3, 4-7, ... bytes
+    private static final int RANGES_PER_WORKER = 16;
+    private static final int PROGRESS_BATCH = 1000;
+    private static final int RATE_BATCH = 100;
+    
+    @Value("${partition-scan.directory:${java.io.tmpdir}/cassandra-browser-partition-scans}")
+    private String summaryDirectory;
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Totals and largest partitions of one or more ranges. Ranges fill their own and
+     * merge into the job's when they complete.
+     */
+    private static class ScanTotals {
+        private final int topPartitions;
+        private final long largeThreshold;
+        private final PriorityQueue<PartitionScanResponse.PartitionSize> largest =
+            new PriorityQueue<>(Comparator.comparingLong(PartitionScanResponse.PartitionSize::getBytes));
+        private final long[] sizeBuckets = new long[SIZE_BUCKETS];
+        private long partitions;
+        private long rows;
+        private long bytes;
+        private long largePartitions;
+        
+        ScanTotals(int topPartitions, long largeThreshold) {
+            this.topPartitions = topPartitions;
+            this.largeThreshold = largeThreshold;
+        }
+        
+        boolean isCandidate(long partitionBytes) {
+            return largest.size() < topPartitions || partitionBytes > largest.peek().getBytes();
+        }
+        
+        void offer(PartitionScanResponse.PartitionSize partition) {
+            largest.add(partition);
+            if (largest.size() > topPartitions) {
+                largest.poll();
+            }
+        }
+        
+        void count(long partitionRows, long partitionBytes) {
+            partitions++;
+            rows += partitionRows;
+            bytes += partitionBytes;
+            sizeBuckets[sizeBucket(partitionBytes)]++;
+            if (partitionBytes > largeThreshold) {
+                largePartitions++;
+            }
+        }
+        
+        void merge(ScanTotals other) {
+            partitions += other.partitions;
+            rows += other.rows;
+            bytes += other.bytes;
+            largePartitions += other.largePartitions;
+            for (int i = 0; i < SIZE_BUCKETS; i++) {
+                sizeBuckets[i] += other.sizeBuckets[i];
+            }
+            other.largest.forEach(this::offer);
+        }
+    }
+    
+    public Job startScan(String clusterId, String keyspaceName, String tableName, PartitionScanRequest request) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        int concurrency = tokenRangeScanner.resolveConcurrency(request.getConcurrency());
+        int pageSize = tokenRangeScanner.resolvePageSize(request.getPageSize());
+        int topPartitions = resolve(request.getTopPartitions(), DEFAULT_TOP_PARTITIONS, MAX_TOP_PARTITIONS,
+                                    "Top partitions");
+        long largeThreshold = resolve(request.getLargePartitionMb(), DEFAULT_LARGE_PARTITION_MB,
+                                      Integer.MAX_VALUE, "Large partition size") * 1024L * 1024L;
+        if (request.getMaxRowsPerSecond() != null && request.getMaxRowsPerSecond() < 1) {
+            throw new IllegalArgumentException("Max rows per second must be at least 1");
+        }
+        
+        List<ScanRange> ranges = tokenRangeScanner.splitRing(session, concurrency * RANGES_PER_WORKER);
+        // Kept across resumes - completed ranges are already merged and are not read again
+        ScanTotals totals = new ScanTotals(topPartitions, largeThreshold);
+        
+        Job job = new Job("partition-scan", clusterId, keyspaceName, tableName);
+        job.setTotalRanges(ranges.size());
+        job.setTask(() -> runScan(job, clusterId, table, ranges, totals, concurrency, pageSize,
+                                  request.getMaxRowsPerSecond()));
+        return jobRegistry.start(job);
+    }
+    
+    /**
+     * Summaries of completed scans of a table, newest first.
+     */
+    public List<PartitionScanResponse> listSummaries(String clusterId, String keyspaceName, String tableName)
+            throws IOException {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        Path directory = tableDirectory(table);
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        List<PartitionScanResponse> summaries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".json")).collect(Collectors.toList())) {
+                summaries.add(objectMapper.readValue(file.toFile(), PartitionScanResponse.class));
+            }
+        }
+        summaries.sort(Comparator.comparingLong(PartitionScanResponse::getCompletedAt).reversed());
+        return summaries;
+    }
+    
+    private void runScan(Job job, String clusterId, TableMetadata table, List<ScanRange> ranges,
+                         ScanTotals totals, int concurrency, int pageSize, Integer maxRowsPerSecond) {
+        long startTime = System.currentTimeMillis();
+        CqlSession session = connectionManager.getSession(clusterId);
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        List<ColumnMetadata> columns = new ArrayList<>(table.getColumns().values());
+        List<ColumnMetadata> partitionKey = table.getPartitionKey();
+        String tokenExpression = "token(" + partitionKey.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", ")) + ")";
+        // The token comes first, then the partition key columns (table columns start with them)
+        String selectClause = tokenExpression + ", " + columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "));
+        TokenRangeScanner.RangeStatements statements =
+            tokenRangeScanner.prepare(clusterId, session, table, selectClause);
+        RateLimiter rateLimiter = maxRowsPerSecond != null ? new RateLimiter(maxRowsPerSecond) : null;
+        
+        tokenRangeScanner.runParallel(job, ranges, concurrency,
+            () -> new ScanTotals(totals.topPartitions, totals.largeThreshold), (range, stopped, local) -> {
+            PartitionTracker tracker = new PartitionTracker(local, partitionKey, codecRegistry);
+            long[] pending = new long[1];
+            long rows = tokenRangeScanner.scan(session, tokenRangeScanner.bind(statements, range, pageSize),
+                stopped, row -> {
+                    tracker.accept(row);
+                    if (++pending[0] % RATE_BATCH == 0 && rateLimiter != null) {
+                        rateLimiter.acquire(RATE_BATCH);
+                    }
+                    if (pending[0] == PROGRESS_BATCH) {
+                        job.addRows(pending[0]);
+                        pending[0] = 0;
+                    }
+                });
+            job.addRows(pending[0]);
+            tracker.finish();
+            return rows;
+        }, totals::merge);
+        
+        if (job.isCancelRequested()) {
+            return;
+        }
+        PartitionScanResponse summary;
+        synchronized (job) {
+            summary = toResponse(job, table, totals, startTime);
+        }
+        try {
+            writeSummary(table, summary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        job.setResult(summary);
+    }
+    
+    /**
+     * Measures the partition currently streaming past and hands it to the totals
+     * when the partition key changes.
+     */
+    private class PartitionTracker {
+        private final ScanTotals totals;
+        private final List<ColumnMetadata> partitionKey;
+        private final CodecRegistry codecRegistry;
+        private List<ByteBuffer> currentKey;
+        private Row firstRow;
+        private long rows;
+        private long bytes;
+        
+        PartitionTracker(ScanTotals totals, List<ColumnMetadata> partitionKey, CodecRegistry codecRegistry) {
+            this.totals = totals;
+            this.partitionKey = partitionKey;
+            this.codecRegistry = codecRegistry;
+        }
+        
+        void accept(Row row) {
+            List<ByteBuffer> key = new ArrayList<>(partitionKey.size());
+            for (int i = 0; i < partitionKey.size(); i++) {
+                key.add(row.getBytesUnsafe(i + 1));
+            }
+            if (!key.equals(currentKey)) {
+                finish();
+                currentKey = key;
+                firstRow = row;
+            }
+            rows++;
+            // Cell values only - skip the token column
+            for (int i = 1; i < row.getColumnDefinitions().size(); i++) {
+                ByteBuffer value = row.getBytesUnsafe(i);
+                if (value != null) {
+                    bytes += value.remaining();
+                }
+            }
+        }
+        
+        void finish() {
+            if (currentKey == null) {
+                return;
+            }
+            totals.count(rows, bytes);
+            if (totals.isCandidate(bytes)) {
+                // Keys are only decoded for partitions that make it into the heap
+                List<Object> key = new ArrayList<>(partitionKey.size());
+                for (int i = 0; i < partitionKey.size(); i++) {
+                    key.add(valueConverter.toJsonValue(firstRow.getObject(i + 1), partitionKey.get(i).getType(),
+                                                       codecRegistry));
+                }
+                totals.offer(new PartitionScanResponse.PartitionSize(
+                    key, firstRow.getToken(0).toString(), rows, bytes));
+            }
+            currentKey = null;
+            firstRow = null;
+            rows = 0;
+            bytes = 0;
+        }
+    }
+    
+    private PartitionScanResponse toResponse(Job job, TableMetadata table, ScanTotals totals, long startTime) {
+        List<PartitionScanResponse.PartitionSize> largest = new ArrayList<>(totals.largest);
+        largest.sort(Comparator.comparingLong(PartitionScanResponse.PartitionSize::getBytes).reversed());
+        
+        List<PartitionScanResponse.SizeBucket> histogram = new ArrayList<>();
+        for (int bucket = 0; bucket < SIZE_BUCKETS; bucket++) {
+            if (totals.sizeBuckets[bucket] > 0) {
+                long min = bucket == 0 ? 0 : 1L << (bucket - 1);
+                long max = bucket == 0 ? 0 : (bucket == SIZE_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1);
+                histogram.add(new PartitionScanResponse.SizeBucket(min, max, totals.sizeBuckets[bucket]));
+            }
+        }
+        
+        long now = System.currentTimeMillis();
+        return new PartitionScanResponse(
+            job.getId(),
+            table.getKeyspace().asInternal(),
+            table.getName().asInternal(),
+            totals.partitions,
+            totals.rows,
+            totals.bytes,
+            totals.largeThreshold,
+            totals.largePartitions,
+            largest,
+            histogram,
+            now - startTime,
+            now
+        );
+    }
+    
+    private void writeSummary(TableMetadata table, PartitionScanResponse summary) throws IOException {
+        Path directory = tableDirectory(table);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(summary.getJobId() + ".json");
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, objectMapper.writeValueAsBytes(summary));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private Path tableDirectory(TableMetadata table) {
+        return Paths.get(summaryDirectory, table.getKeyspace().asInternal() + "." + table.getName().asInternal());
+    }
+    
+    private static int sizeBucket(long bytes) {
+        return bytes == 0 ? 0 : Math.min(SIZE_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(bytes));
+    }
+    
+    private int resolve(Integer requested, int defaultValue, int max, String name) {
+        if (requested == null) {
+            return defaultValue;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        return Math.min(requested, max);
+    }
+}
@@ -0,0 +1,207 @@
+package com.cassandra.browser.service;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListener;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListenerBase;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of prepared statements keyed by cluster, keyspace and normalised CQL.
+ * Bound statements carry routing information, so the driver can route them token-aware.
+ */
+@Service
+public class PreparedStatementCache {
+    
+    private final int maxSize;
+    private final Map<String, CompletableFuture<PreparedStatement>> statements;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public PreparedStatementCache(@Value("${cassandra.prepared-statement-cache.max-size:500}") int maxSize) {
+        this.maxSize = maxSize;
+        // Access-ordered map evicts the least recently used statement first
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<PreparedStatement>> eldest) {
+                return size() > PreparedStatementCache.this.maxSize;
+            }
+        };
+    }
+    
+    /**
+     * Returns the prepared statement for the query, preparing it on the first use.
+     * Concurrent callers for the same query share a single prepare request.
+     */
+    public CompletableFuture<PreparedStatement> prepareAsync(String clusterId, CqlSession session,
+                                                             String keyspaceName, String cql) {
+        String normalized = normalize(cql);
+        String key = clusterId + "|" + (keyspaceName != null ? keyspaceName : "") + "|" + normalized;
+        
+        CompletableFuture<PreparedStatement> future;
+        boolean created = false;
+        synchronized (statements) {
+            future = statements.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                statements.put(key, future);
+                created = true;
+            }
+        }
+        
+        if (!created) {
+            hits.incrementAndGet();
+            return future;
+        }
+        
+        misses.incrementAndGet();
+        // The normalized text is only the key - the query itself is prepared as written
+        SimpleStatement statement = SimpleStatement.newInstance(cql);
+        if (keyspaceName != null && !keyspaceName.isEmpty()) {
+            statement = statement.setKeyspace(CqlIdentifier.fromCql(keyspaceName));
+        }
+        
+        CompletableFuture<PreparedStatement> pending = future;
+        session.prepareAsync(statement).whenComplete((prepared, error) -> {
+            if (error != null) {
+                // Do not cache failures - the next call should retry the prepare
+                synchronized (statements) {
+                    statements.remove(key, pending);
+                }
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(prepared);
+            }
+        });
+        return future;
+    }
+    
+    public PreparedStatement prepare(String clusterId, CqlSession session, String keyspaceName, String cql) {
+        try {
+            return prepareAsync(clusterId, session, keyspaceName, cql).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while preparing statement", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+    
+    public void evictCluster(String clusterId) {
+        String prefix = clusterId + "|";
+        synchronized (statements) {
+            statements.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+    
+    /**
+     * Result metadata of prepared statements goes stale when a table changes,
+     * so the cluster's statements are dropped and prepared again on next use.
+     */
+    public SchemaChangeListener createListener(String clusterId) {
+        return new SchemaChangeListenerBase() {
+            @Override
+            public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+                evictCluster(clusterId);
+            }
+            
+            @Override
+            public void onTableDropped(TableMetadata table) {
+                evictCluster(clusterId);
+            }
+            
+            @Override
+            public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+                evictCluster(clusterId);
+            }
+        };
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public int size() {
+        synchronized (statements) {
+            return statements.size();
+        }
+    }
+    
+    private static String normalize(String cql) {
+        // Drop comments and collapse whitespace outside of literals and quoted identifiers,
+        // so formatting does not split entries, and drop the trailing semicolon. Comments
+        // are removed before collapsing, otherwise a line comment would swallow the rest
+        StringBuilder normalized = new StringBuilder(cql.length());
+        String text = cql.trim();
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\'' || c == '"' || (c == '$' && text.startsWith("$$", i))) {
+                String quote = c == '$' ? "$$" : String.valueOf(c);
+                int end = text.indexOf(quote, i + quote.length());
+                // A doubled quote is an escaped quote inside the literal
+                while (end >= 0 && quote.length() == 1 && text.startsWith(quote, end + 1)) {
+                    end = text.indexOf(quote, end + 2);
+                }
+                end = end < 0 ? text.length() : end + quote.length();
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(text, i, end);
+                i = end;
+                continue;
+            }
+            if (text.startsWith("--", i) || text.startsWith("//", i)) {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? text.length() : end;
+                pendingSpace = true;
+                continue;
+            }
+            if (text.startsWith("/*", i)) {
+                int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? text.length() : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+            if (pendingSpace && normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            pendingSpace = false;
+            normalized.append(c);
+            i++;
+        }
+        
+        String result = normalized.toString().trim();
+        while (result.endsWith(";")) {
+            result = result.substring(0, result.length() - 1).trim();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package com.cassandra.browser.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Browser-side query metrics. Every query is timed into browser.query, tagged by cluster,
+ * keyspace, endpoint, statement kind and outcome, and the number of queries in flight is
+ * tracked per cluster. Driver session and node metrics are registered by ConnectionManager.
+ */
+@Service
+public class QueryMetrics {
+    
+    private static final String QUERY_TIMER = "browser.query";
+    private static final String IN_FLIGHT_GAUGE = "browser.query.in-flight";
+    private static final Set<String> STATEMENT_KINDS = Set.of(
+        "select", "insert", "update", "delete", "batch", "describe", "desc", "use",
+        "create", "alter", "drop", "truncate", "grant", "revoke", "list");
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void registerCacheMetrics() {
+        FunctionCounter.builder("browser.prepared-statements.cache.hits", preparedStatementCache,
+                                PreparedStatementCache::getHits)
+                .description("Prepared statement cache hits")
+                .register(meterRegistry);
+        FunctionCounter.builder("browser.prepared-statements.cache.misses", preparedStatementCache,
+                                PreparedStatementCache::getMisses)
+                .description("Prepared statement cache misses")
+                .register(meterRegistry);
+        Gauge.builder("browser.prepared-statements.cache.size", preparedStatementCache,
+                      PreparedStatementCache::size)
+                .description("Prepared statements currently cached")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Times the asynchronous query. The outcome is error when the call throws or the future fails.
+     */
+    public <T> CompletableFuture<T> timeAsync(String clusterId, String keyspaceName, String endpoint,
+                                              String query, Supplier<CompletableFuture<T>> call) {
+        AtomicInteger counter = inFlightCounter(clusterId);
+        counter.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            counter.decrementAndGet();
+            sample.stop(timer(clusterId, keyspaceName, endpoint, query, false));
+            throw e;
+        }
+        
+        return future.whenComplete((result, error) -> {
+            counter.decrementAndGet();
+            sample.stop(timer(clusterId, keyspaceName, endpoint, query, error == null));
+        });
+    }
+    
+    /**
+     * Starts timing a blocking or streamed query. The returned handle must be stopped exactly once.
+     */
+    public Handle start(String clusterId, String keyspaceName, String endpoint, String query) {
+        AtomicInteger counter = inFlightCounter(clusterId);
+        counter.incrementAndGet();
+        return new Handle(Timer.start(meterRegistry), counter, clusterId, keyspaceName, endpoint, query);
+    }
+    
+    public class Handle {
+        private final Timer.Sample sample;
+        private final AtomicInteger counter;
+        private final String clusterId;
+        private final String keyspaceName;
+        private final String endpoint;
+        private final String query;
+        
+        private Handle(Timer.Sample sample, AtomicInteger counter, String clusterId, String keyspaceName,
+                       String endpoint, String query) {
+            this.sample = sample;
+            this.counter = counter;
+            this.clusterId = clusterId;
+            this.keyspaceName = keyspaceName;
+            this.endpoint = endpoint;
+            this.query = query;
+        }
+        
+        public void stop(boolean success) {
+            counter.decrementAndGet();
+            sample.stop(timer(clusterId, keyspaceName, endpoint, query, success));
+        }
+    }
+    
+    private Timer timer(String clusterId, String keyspaceName, String endpoint, String query, boolean success) {
+        return Timer.builder(QUERY_TIMER)
+                .description("Browser query latency")
+                .tag("cluster", clusterId)
+                .tag("keyspace", keyspaceName != null ? keyspaceName : "")
+                .tag("endpoint", endpoint)
+                .tag("kind", statementKind(query))
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry);
+    }
+    
+    private AtomicInteger inFlightCounter(String clusterId) {
+        return inFlight.computeIfAbsent(clusterId, id -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder(IN_FLIGHT_GAUGE, counter, AtomicInteger::get)
+                    .description("Browser queries currently in flight")
+                    .tag("cluster", id)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+    
+    /**
+     * Drops the timers and in-flight gauge of a disconnected cluster.
+     */
+    public void evictCluster(String clusterId) {
+        if (inFlight.remove(clusterId) != null) {
+            meterRegistry.find(IN_FLIGHT_GAUGE).tag("cluster", clusterId).meters()
+                    .forEach(meterRegistry::remove);
+        }
+        meterRegistry.find(QUERY_TIMER).tag("cluster", clusterId).meters()
+                .forEach(meterRegistry::remove);
+    }
+    
+    // Leading keyword of the statement - anything unknown is folded into "other" to bound the tag values
+    static String statementKind(String query) {
+        if (query == null) {
+            return "other";
+        }
+        String trimmed = query.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return STATEMENT_KINDS.contains(keyword) ? keyword : "other";
+    }
+}
@@ -0,0 +1,32 @@
+package com.cassandra.browser.service;
+
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+
+/**
+ * One unwrapped slice (start, end] of the token ring. When openEnded is set the slice
+ * runs from start to the end of the ring and end is not used as an upper bound.
+ * The routing token is owned by the replicas of the slice, so requests for it are
+ * sent straight to a replica.
+ */
+public class ScanRange {
+    
+    private final int index;
+    private final Token start;
+    private final Token end;
+    private final boolean openEnded;
+    private final Token routingToken;
+    
+    public ScanRange(int index, Token start, Token end, boolean openEnded, Token routingToken) {
+        this.index = index;
+        this.start = start;
+        this.end = end;
+        this.openEnded = openEnded;
+        this.routingToken = routingToken;
+    }
+    
+    public int getIndex() { return index; }
+    public Token getStart() { return start; }
+    public Token getEnd() { return end; }
+    public boolean isOpenEnded() { return openEnded; }
+    public Token getRoutingToken() { return routingToken; }
+}
@@ -0,0 +1,224 @@
+package com.cassandra.browser.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index over the keyspace, table and column names of one cluster. Names are
+ * split into words at underscores, case changes and digits, so "customerId",
+ * "customer_id" and "CUSTOMER_ID" all match a search for "customer id". Instances are
+ * immutable and built once per schema version.
+ */
+public final class SchemaIndex {
+    
+    public enum Kind { KEYSPACE, TABLE, VIEW, COLUMN }
+    
+    public static final class Entry {
+        private final Kind kind;
+        private final String keyspace;
+        private final String table;
+        private final String column;
+        private final String dataType;
+        private final String joined; // words of the entry's own name, joined
+        private final int words;
+        
+        Entry(Kind kind, String keyspace, String table, String column, String dataType, String joined, int words) {
+            this.kind = kind;
+            this.keyspace = keyspace;
+            this.table = table;
+            this.column = column;
+            this.dataType = dataType;
+            this.joined = joined;
+            this.words = words;
+        }
+        
+        public Kind getKind() { return kind; }
+        public String getKeyspace() { return keyspace; }
+        public String getTable() { return table; }
+        public String getColumn() { return column; }
+        public String getDataType() { return dataType; }
+    }
+    
+    public static final class Hit {
+        private final Entry entry;
+        private final double score;
+        
+        Hit(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+        
+        public Entry getEntry() { return entry; }
+        public double getScore() { return score; }
+    }
+    
+    public static final class Builder {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+        
+        public Builder addKeyspace(String keyspace) {
+            return add(Kind.KEYSPACE, keyspace, null, null, null, keyspace);
+        }
+        
+        public Builder addTable(String keyspace, String table, boolean view) {
+            return add(view ? Kind.VIEW : Kind.TABLE, keyspace, table, null, null, table);
+        }
+        
+        public Builder addColumn(String keyspace, String table, String column, String dataType) {
+            return add(Kind.COLUMN, keyspace, table, column, dataType, column);
+        }
+        
+        private Builder add(Kind kind, String keyspace, String table, String column, String dataType, String name) {
+            List<String> words = words(name);
+            int id = entries.size();
+            entries.add(new Entry(kind, keyspace, table, column, dataType, String.join("", words), words.size()));
+            for (String word : words) {
+                addPosting(word, id);
+            }
+            // The joined form lets "orderid" find "order_id"
+            if (words.size() > 1) {
+                addPosting(entries.get(id).joined, id);
+            }
+            return this;
+        }
+        
+        private void addPosting(String word, int id) {
+            List<Integer> ids = postings.computeIfAbsent(word, w -> new ArrayList<>());
+            if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                ids.add(id);
+            }
+        }
+        
+        public SchemaIndex build() {
+            String[] words = postings.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+            int[][] ids = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                ids[i] = postings.get(words[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return new SchemaIndex(entries.toArray(new Entry[0]), words, ids);
+        }
+    }
+    
+    private final Entry[] entries;
+    private final String[] words; // sorted, so prefix matches are a contiguous run
+    private final int[][] postings;
+    
+    private SchemaIndex(Entry[] entries, String[] words, int[][] postings) {
+        this.entries = entries;
+        this.words = words;
+        this.postings = postings;
+    }
+    
+    public int size() {
+        return entries.length;
+    }
+    
+    /**
+     * Returns every entry whose name contains all words of the query, each either as
+     * a whole word or as the prefix of one, with its score. Higher scores rank first:
+     * exact names beat name prefixes, whole words beat word prefixes, and shorter
+     * names beat longer ones.
+     */
+    public List<Hit> search(String query) {
+        List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        
+        BitSet candidates = null;
+        BitSet[] exact = new BitSet[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            BitSet matched = new BitSet(entries.length);
+            exact[t] = new BitSet(entries.length);
+            for (int i = firstWithPrefix(term); i < words.length && words[i].startsWith(term); i++) {
+                BitSet target = words[i].length() == term.length() ? exact[t] : matched;
+                for (int id : postings[i]) {
+                    target.set(id);
+                }
+            }
+            matched.or(exact[t]);
+            if (candidates == null) {
+                candidates = matched;
+            } else {
+                candidates.and(matched);
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+        
+        String normalized = String.join("", terms);
+        List<Hit> hits = new ArrayList<>();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            Entry entry = entries[id];
+            double score;
+            if (entry.joined.equals(normalized)) {
+                score = 100;
+            } else if (entry.joined.startsWith(normalized)) {
+                score = 70;
+            } else {
+                score = 40;
+            }
+            for (BitSet termExact : exact) {
+                score += termExact.get(id) ? 10 : 4;
+            }
+            // Words of the name the query did not ask for make the match weaker
+            score -= 3 * Math.max(0, entry.words - terms.size());
+            score += switch (entry.kind) {
+                case TABLE, VIEW -> 6;
+                case KEYSPACE -> 4;
+                case COLUMN -> 0;
+            };
+            hits.add(new Hit(entry, score));
+        }
+        return hits;
+    }
+    
+    private int firstWithPrefix(String prefix) {
+        int index = Arrays.binarySearch(words, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    /**
+     * Splits a name into lower case words at non-alphanumeric characters, lower-to-upper
+     * case changes and letter/digit boundaries.
+     */
+    static List<String> words(String name) {
+        List<String> result = new ArrayList<>();
+        if (name == null) {
+            return result;
+        }
+        StringBuilder word = new StringBuilder();
+        char previous = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                flush(word, result);
+            } else {
+                boolean boundary = word.length() > 0
+                        && ((Character.isLowerCase(previous) && Character.isUpperCase(c))
+                            || Character.isDigit(previous) != Character.isDigit(c));
+                if (boundary) {
+                    flush(word, result);
+                }
+                word.append(Character.toLowerCase(c));
+            }
+            previous = c;
+        }
+        flush(word, result);
+        return result;
+    }
+    
+    private static void flush(StringBuilder word, List<String> result) {
+        if (word.length() > 0) {
+            result.add(word.toString());
+            word.setLength(0);
+        }
+    }
+}
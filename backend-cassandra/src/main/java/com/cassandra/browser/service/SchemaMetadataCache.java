@@ -0,0 +1,211 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.response.KeyspaceResponse;
+import com.cassandra.browser.model.response.TableDetailsResponse;
+import com.cassandra.browser.model.response.TableResponse;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListener;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListenerBase;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-cluster cache of the schema views shown in the browser tree.
+ * Entries are loaded lazily and dropped by a driver SchemaChangeListener
+ * whenever the cluster reports a keyspace or table change. Every change bumps
+ * the cluster's generation, and a view loaded while it changed is returned but
+ * not cached, so a load racing with a schema change never caches stale data.
+ */
+@Service
+public class SchemaMetadataCache {
+    
+    private static final String DSE_SEARCH_KEYSPACE = "dse_search";
+    
+    private final Map<String, ClusterSchema> clusters = new ConcurrentHashMap<>();
+    
+    /**
+     * How Solr cores are looked up on a cluster, discovered once per cluster.
+     */
+    public enum SolrLookup {
+        UNAVAILABLE,  // no dse_search keyspace - DSE Search is not enabled
+        BY_CORE_NAME, // solr_resources can be queried by core_name
+        FULL_SCAN     // solr_resources must be read in full and filtered
+    }
+    
+    private static class ClusterSchema {
+        private volatile long generation; // changed under the ClusterSchema lock only
+        private volatile List<KeyspaceResponse> keyspaces;
+        private final Map<String, List<TableResponse>> tables = new ConcurrentHashMap<>();
+        private final Map<String, TableDetailsResponse> tableDetails = new ConcurrentHashMap<>();
+        private volatile SolrLookup solrLookup;
+        private volatile List<TableDetailsResponse.IndexInfo> solrIndexes; // full scan result, FULL_SCAN only
+        private volatile SchemaIndex searchIndex;
+    }
+    
+    public List<KeyspaceResponse> getKeyspaces(String clusterId, Supplier<List<KeyspaceResponse>> loader) {
+        ClusterSchema schema = clusterSchema(clusterId);
+        List<KeyspaceResponse> keyspaces = schema.keyspaces;
+        if (keyspaces == null) {
+            // Load outside of any lock - a concurrent miss only costs a duplicate load
+            long generation = schema.generation;
+            List<KeyspaceResponse> loaded = List.copyOf(loader.get());
+            store(schema, generation, () -> schema.keyspaces = loaded);
+            keyspaces = loaded;
+        }
+        return keyspaces;
+    }
+    
+    public List<TableResponse> getTables(String clusterId, String keyspaceName,
+                                         Supplier<List<TableResponse>> loader) {
+        ClusterSchema schema = clusterSchema(clusterId);
+        List<TableResponse> tables = schema.tables.get(keyspaceName);
+        if (tables == null) {
+            long generation = schema.generation;
+            List<TableResponse> loaded = List.copyOf(loader.get());
+            store(schema, generation, () -> schema.tables.put(keyspaceName, loaded));
+            tables = loaded;
+        }
+        return tables;
+    }
+    
+    public TableDetailsResponse getTableDetails(String clusterId, String keyspaceName, String tableName,
+                                                Supplier<TableDetailsResponse> loader) {
+        ClusterSchema schema = clusterSchema(clusterId);
+        String key = tableKey(keyspaceName, tableName);
+        TableDetailsResponse details = schema.tableDetails.get(key);
+        if (details == null) {
+            long generation = schema.generation;
+            TableDetailsResponse loaded = loader.get();
+            store(schema, generation, () -> schema.tableDetails.put(key, loaded));
+            details = loaded;
+        }
+        return details;
+    }
+    
+    public SchemaIndex getSearchIndex(String clusterId, Supplier<SchemaIndex> loader) {
+        ClusterSchema schema = clusterSchema(clusterId);
+        SchemaIndex index = schema.searchIndex;
+        if (index == null) {
+            long generation = schema.generation;
+            SchemaIndex loaded = loader.get();
+            store(schema, generation, () -> schema.searchIndex = loaded);
+            index = loaded;
+        }
+        return index;
+    }
+    
+    public SolrLookup getSolrLookup(String clusterId) {
+        return clusterSchema(clusterId).solrLookup;
+    }
+    
+    public void setSolrLookup(String clusterId, SolrLookup solrLookup) {
+        clusterSchema(clusterId).solrLookup = solrLookup;
+    }
+    
+    public List<TableDetailsResponse.IndexInfo> getSolrIndexes(String clusterId) {
+        return clusterSchema(clusterId).solrIndexes;
+    }
+    
+    public void setSolrIndexes(String clusterId, List<TableDetailsResponse.IndexInfo> solrIndexes) {
+        clusterSchema(clusterId).solrIndexes = List.copyOf(solrIndexes);
+    }
+    
+    public void invalidateKeyspace(String clusterId, String keyspaceName) {
+        ClusterSchema schema = clusters.get(clusterId);
+        if (schema == null) {
+            return;
+        }
+        synchronized (schema) {
+            schema.generation++;
+            if (DSE_SEARCH_KEYSPACE.equals(keyspaceName)) {
+                // DSE Search was enabled or disabled - detect it again
+                schema.solrLookup = null;
+            }
+            schema.solrIndexes = null;
+            schema.keyspaces = null;
+            schema.searchIndex = null;
+            schema.tables.remove(keyspaceName);
+            String prefix = keyspaceName + ".";
+            schema.tableDetails.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+    
+    public void invalidateTable(String clusterId, String keyspaceName, String tableName) {
+        ClusterSchema schema = clusters.get(clusterId);
+        if (schema == null) {
+            return;
+        }
+        synchronized (schema) {
+            schema.generation++;
+            schema.tables.remove(keyspaceName);
+            schema.tableDetails.remove(tableKey(keyspaceName, tableName));
+            schema.searchIndex = null;
+            // Search index DDL alters the table, so the scanned Solr cores may be stale
+            schema.solrIndexes = null;
+        }
+    }
+    
+    public void evictCluster(String clusterId) {
+        clusters.remove(clusterId);
+    }
+    
+    /**
+     * Creates the listener registered on the cluster's session. The driver calls it
+     * after each schema refresh, so cached entries never outlive a schema change.
+     */
+    public SchemaChangeListener createListener(String clusterId) {
+        return new SchemaChangeListenerBase() {
+            @Override
+            public void onKeyspaceCreated(KeyspaceMetadata keyspace) {
+                invalidateKeyspace(clusterId, keyspace.getName().asInternal());
+            }
+            
+            @Override
+            public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+                invalidateKeyspace(clusterId, keyspace.getName().asInternal());
+            }
+            
+            @Override
+            public void onKeyspaceUpdated(KeyspaceMetadata current, KeyspaceMetadata previous) {
+                invalidateKeyspace(clusterId, current.getName().asInternal());
+            }
+            
+            @Override
+            public void onTableCreated(TableMetadata table) {
+                invalidateTable(clusterId, table.getKeyspace().asInternal(), table.getName().asInternal());
+            }
+            
+            @Override
+            public void onTableDropped(TableMetadata table) {
+                invalidateTable(clusterId, table.getKeyspace().asInternal(), table.getName().asInternal());
+            }
+            
+            @Override
+            public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+                invalidateTable(clusterId, current.getKeyspace().asInternal(), current.getName().asInternal());
+            }
+        };
+    }
+    
+    private void store(ClusterSchema schema, long generation, Runnable store) {
+        // Checked under the lock invalidation holds, so no change can slip in between
+        synchronized (schema) {
+            if (schema.generation == generation) {
+                store.run();
+            }
+        }
+    }
+    
+    private ClusterSchema clusterSchema(String clusterId) {
+        return clusters.computeIfAbsent(clusterId, id -> new ClusterSchema());
+    }
+    
+    private String tableKey(String keyspaceName, String tableName) {
+        return keyspaceName + "." + tableName;
+    }
+}
@@ -0,0 +1,179 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.response.SchemaSearchResponse;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.RelationMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ViewMetadata;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches keyspace, table and column names on every connected cluster at once. Each
+ * cluster is searched through an inverted index built from the driver's in-memory
+ * schema metadata and kept in the SchemaMetadataCache, so a search never queries the
+ * clusters unless their schema changed. Clusters that do not answer within the
+ * deadline are reported as unavailable rather than holding up the rest.
+ */
+@Service
+public class SchemaSearchService {
+    
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final long SEARCH_TIMEOUT_MS = 800;
+    
+    private static final Comparator<SchemaSearchResponse.Match> RANKING =
+        Comparator.comparingDouble(SchemaSearchResponse.Match::getScore).reversed()
+            .thenComparing(SchemaSearchResponse.Match::getClusterId)
+            .thenComparing(SchemaSearchResponse.Match::getKeyspace)
+            .thenComparing(SchemaSearchResponse.Match::getTable, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(SchemaSearchResponse.Match::getColumn, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private SchemaMetadataCache schemaMetadataCache;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    
+    public CompletableFuture<SchemaSearchResponse> search(String query, Integer limit) {
+        if (query == null || SchemaIndex.words(query).isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit");
+        }
+        int resolvedLimit = resolveLimit(limit);
+        long startTime = System.currentTimeMillis();
+        
+        Map<String, CompletableFuture<List<SchemaSearchResponse.Match>>> searches = new LinkedHashMap<>();
+        for (String clusterId : List.copyOf(connectionManager.getAllClusterIds())) {
+            searches.put(clusterId, CompletableFuture.supplyAsync(() -> searchCluster(clusterId, query), executor));
+        }
+        
+        // A failed cluster must not fail the search, so failures are collected below instead
+        return CompletableFuture.allOf(searches.values().toArray(new CompletableFuture<?>[0]))
+                .completeOnTimeout(null, SEARCH_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .handle((ignored, e) -> {
+                    List<SchemaSearchResponse.Match> matches = new ArrayList<>();
+                    List<String> unavailable = new ArrayList<>();
+                    searches.forEach((clusterId, search) -> {
+                        if (search.isDone() && !search.isCompletedExceptionally()) {
+                            matches.addAll(search.join());
+                        } else {
+                            // Slow clusters keep building their index, the next search finds it cached
+                            unavailable.add(clusterId);
+                        }
+                    });
+                    matches.sort(RANKING);
+                    
+                    boolean truncated = matches.size() > resolvedLimit;
+                    List<SchemaSearchResponse.Match> results = truncated
+                            ? new ArrayList<>(matches.subList(0, resolvedLimit))
+                            : matches;
+                    return new SchemaSearchResponse(query, results, matches.size(), truncated, searches.size(),
+                        unavailable, System.currentTimeMillis() - startTime);
+                });
+    }
+    
+    private List<SchemaSearchResponse.Match> searchCluster(String clusterId, String query) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        SchemaIndex index = schemaMetadataCache.getSearchIndex(clusterId, () -> buildIndex(clusterId, session));
+        
+        ConnectionManager.ConnectionInfo info = connectionManager.getConnectionInfo(clusterId);
+        String clusterName = info != null ? info.getName() : clusterId;
+        
+        List<SchemaSearchResponse.Match> matches = new ArrayList<>();
+        for (SchemaIndex.Hit hit : index.search(query)) {
+            SchemaIndex.Entry entry = hit.getEntry();
+            matches.add(new SchemaSearchResponse.Match(clusterId, clusterName, entry.getKind().name(),
+                entry.getKeyspace(), entry.getTable(), entry.getColumn(), entry.getDataType(), hit.getScore()));
+        }
+        return matches;
+    }
+    
+    private SchemaIndex buildIndex(String clusterId, CqlSession session) {
+        SchemaIndex.Builder builder = new SchemaIndex.Builder();
+        
+        // Prefer the driver's in-memory schema metadata
+        Map<?, KeyspaceMetadata> keyspaces = session.getMetadata().getKeyspaces();
+        if (!keyspaces.isEmpty()) {
+            for (KeyspaceMetadata keyspace : keyspaces.values()) {
+                String keyspaceName = keyspace.getName().asInternal();
+                if (CassandraMetadataService.isSystemKeyspace(keyspaceName)) {
+                    continue;
+                }
+                builder.addKeyspace(keyspaceName);
+                for (RelationMetadata table : keyspace.getTables().values()) {
+                    addRelation(builder, keyspaceName, table, false);
+                }
+                for (ViewMetadata view : keyspace.getViews().values()) {
+                    addRelation(builder, keyspaceName, view, true);
+                }
+            }
+            return builder.build();
+        }
+        
+        // Schema metadata not available on the session - every table has columns, so
+        // system_schema.columns alone names all keyspaces, tables and views
+        Set<String> keyspaceNames = new LinkedHashSet<>();
+        Set<String> tableNames = new LinkedHashSet<>();
+        for (Row row : session.execute(preparedStatementCache.prepare(clusterId, session, null,
+                "SELECT keyspace_name, table_name, column_name, type FROM system_schema.columns").bind())) {
+            String keyspaceName = row.getString("keyspace_name");
+            String tableName = row.getString("table_name");
+            if (CassandraMetadataService.isSystemKeyspace(keyspaceName)) {
+                continue;
+            }
+            if (keyspaceNames.add(keyspaceName)) {
+                builder.addKeyspace(keyspaceName);
+            }
+            if (tableNames.add(keyspaceName + "." + tableName)) {
+                builder.addTable(keyspaceName, tableName, false);
+            }
+            builder.addColumn(keyspaceName, tableName, row.getString("column_name"), row.getString("type"));
+        }
+        return builder.build();
+    }
+    
+    private void addRelation(SchemaIndex.Builder builder, String keyspaceName, RelationMetadata relation,
+                             boolean view) {
+        String tableName = relation.getName().asInternal();
+        builder.addTable(keyspaceName, tableName, view);
+        for (ColumnMetadata column : relation.getColumns().values()) {
+            builder.addColumn(keyspaceName, tableName, column.getName().asInternal(),
+                              column.getType().asCql(true, true));
+        }
+    }
+    
+    private int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
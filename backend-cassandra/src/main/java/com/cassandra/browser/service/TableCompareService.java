@@ -0,0 +1,517 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.request.CompareRequest;
+import com.cassandra.browser.model.response.CompareResponse;
+import com.cassandra.browser.util.CqlOrdering;
+import com.cassandra.browser.util.CqlValueConverter;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Compares a table on two clusters without a row-by-row join. Every token slice is
+ * read once on each side and reduced to a digest of its rows in token order. Only
+ * slices whose digests differ are read again, both sides at once in token and
+ * clustering order, and merged like two sorted lists - so matching tables cost one
+ * parallel read per side, and memory does not grow with the size of a slice.
+ */
+@Service
+public class TableCompareService {
+    
+    private static final int DEFAULT_MAX_DIFFERENCES = 1000;
+    private static final int MAX_DIFFERENCES = 100000;
+    private static final int RANGES_PER_WORKER = 16;
+    private static final int PROGRESS_BATCH = 1000;
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    /**
+     * Everything needed to read the same slice on both sides.
+     */
+    private static class Sides {
+        private final CqlSession source;
+        private final CqlSession target;
+        private final TokenRangeScanner.RangeStatements sourceStatements;
+        private final TokenRangeScanner.RangeStatements targetStatements;
+        private final List<ColumnMetadata> columns; // selected first, followed by the token
+        private final int[] primaryKeyIndexes;
+        private final int[] partitionKeyIndexes;
+        private final int[] clusteringIndexes;
+        private final Comparator<ByteBuffer> tokenOrder;
+        private final List<Comparator<ByteBuffer>> clusteringOrder; // null if a clustering type has no known order
+        private final CodecRegistry codecRegistry;
+        private final int pageSize;
+        
+        Sides(CqlSession source, CqlSession target, TokenRangeScanner.RangeStatements sourceStatements,
+              TokenRangeScanner.RangeStatements targetStatements, List<ColumnMetadata> columns,
+              int[] primaryKeyIndexes, int[] partitionKeyIndexes, int[] clusteringIndexes,
+              Comparator<ByteBuffer> tokenOrder, List<Comparator<ByteBuffer>> clusteringOrder, int pageSize) {
+            this.source = source;
+            this.target = target;
+            this.sourceStatements = sourceStatements;
+            this.targetStatements = targetStatements;
+            this.columns = columns;
+            this.primaryKeyIndexes = primaryKeyIndexes;
+            this.partitionKeyIndexes = partitionKeyIndexes;
+            this.clusteringIndexes = clusteringIndexes;
+            this.tokenOrder = tokenOrder;
+            this.clusteringOrder = clusteringOrder;
+            this.codecRegistry = source.getContext().getCodecRegistry();
+            this.pageSize = pageSize;
+        }
+    }
+    
+    /**
+     * The rows of one side of a slice, read a page at a time, and the current row.
+     */
+    private static class Cursor {
+        private final Iterator<Row> rows;
+        private Row current;
+        
+        Cursor(ResultSet resultSet) {
+            this.rows = resultSet.iterator();
+            advance();
+        }
+        
+        void advance() {
+            current = rows.hasNext() ? rows.next() : null;
+        }
+    }
+    
+    private static class Totals {
+        private final int maxDifferences;
+        private final List<CompareResponse.RowDifference> differences = new ArrayList<>();
+        private long sourceRows;
+        private long targetRows;
+        private int rangesDiffering;
+        private long segmentsHashed;
+        private long missingInTarget;
+        private long missingInSource;
+        private long mismatched;
+        
+        Totals(int maxDifferences) {
+            this.maxDifferences = maxDifferences;
+        }
+        
+        void difference(List<Object> key, String kind) {
+            switch (kind) {
+                case "missing_in_target": missingInTarget++; break;
+                case "missing_in_source": missingInSource++; break;
+                default: mismatched++; break;
+            }
+            if (differences.size() < maxDifferences) {
+                differences.add(new CompareResponse.RowDifference(key, kind));
+            }
+        }
+        
+        long differenceCount() {
+            return missingInTarget + missingInSource + mismatched;
+        }
+        
+        void merge(Totals other) {
+            sourceRows += other.sourceRows;
+            targetRows += other.targetRows;
+            rangesDiffering += other.rangesDiffering;
+            segmentsHashed += other.segmentsHashed;
+            missingInTarget += other.missingInTarget;
+            missingInSource += other.missingInSource;
+            mismatched += other.mismatched;
+            for (CompareResponse.RowDifference difference : other.differences) {
+                if (differences.size() >= maxDifferences) {
+                    break;
+                }
+                differences.add(difference);
+            }
+        }
+    }
+    
+    private static class Digest {
+        private final byte[] hash;
+        private final long rows;
+        
+        Digest(byte[] hash, long rows) {
+            this.hash = hash;
+            this.rows = rows;
+        }
+        
+        boolean matches(Digest other) {
+            return rows == other.rows && Arrays.equals(hash, other.hash);
+        }
+    }
+    
+    public Job startCompare(String clusterId, String keyspaceName, String tableName, CompareRequest request) {
+        CqlSession source = connectionManager.getSession(clusterId);
+        CqlSession target = connectionManager.getSession(request.getTargetClusterId());
+        String targetKeyspace = request.getTargetKeyspace() != null && !request.getTargetKeyspace().isEmpty()
+                ? request.getTargetKeyspace() : keyspaceName;
+        String targetTableName = request.getTargetTable() != null && !request.getTargetTable().isEmpty()
+                ? request.getTargetTable() : tableName;
+        TableMetadata table = tokenRangeScanner.getTableMetadata(source, keyspaceName, tableName);
+        TableMetadata targetTable = tokenRangeScanner.getTableMetadata(target, targetKeyspace, targetTableName);
+        validateCompatible(source, target, table, targetTable);
+        
+        int concurrency = tokenRangeScanner.resolveConcurrency(request.getConcurrency());
+        int pageSize = tokenRangeScanner.resolvePageSize(request.getPageSize());
+        int maxDifferences = request.getMaxDifferences() == null ? DEFAULT_MAX_DIFFERENCES
+                : Math.min(Math.max(request.getMaxDifferences(), 0), MAX_DIFFERENCES);
+        
+        List<ScanRange> ranges = tokenRangeScanner.splitRing(source, concurrency * RANGES_PER_WORKER);
+        // Kept across resumes - completed ranges are already merged and are not read again
+        Totals totals = new Totals(maxDifferences);
+        
+        Job job = new Job("compare", clusterId, keyspaceName, tableName);
+        job.setTotalRanges(ranges.size());
+        job.setTask(() -> runCompare(job, clusterId, request.getTargetClusterId(), table, targetTable,
+                                     ranges, totals, concurrency, pageSize));
+        return jobRegistry.start(job);
+    }
+    
+    private void runCompare(Job job, String clusterId, String targetClusterId, TableMetadata table,
+                            TableMetadata targetTable, List<ScanRange> ranges, Totals totals,
+                            int concurrency, int pageSize) {
+        long startTime = System.currentTimeMillis();
+        CqlSession source = connectionManager.getSession(clusterId);
+        CqlSession target = connectionManager.getSession(targetClusterId);
+        
+        // Both sides select the source columns by name, so the values line up by position.
+        // The token comes last, for merging, and is not part of the digests
+        List<ColumnMetadata> columns = new ArrayList<>(table.getColumns().values());
+        String selectClause = columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "))
+            + ", token(" + table.getPartitionKey().stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", ")) + ")";
+        List<Comparator<ByteBuffer>> clusteringOrder = new ArrayList<>();
+        for (Map.Entry<ColumnMetadata, ClusteringOrder> column : table.getClusteringColumns().entrySet()) {
+            Comparator<ByteBuffer> order = CqlOrdering.forType(column.getKey().getType());
+            if (order == null) {
+                clusteringOrder = null;
+                break;
+            }
+            clusteringOrder.add(column.getValue() == ClusteringOrder.DESC ? order.reversed() : order);
+        }
+        Sides sides = new Sides(source, target,
+            tokenRangeScanner.prepare(clusterId, source, table, selectClause),
+            tokenRangeScanner.prepare(targetClusterId, target, targetTable, selectClause),
+            columns,
+            table.getPrimaryKey().stream().mapToInt(columns::indexOf).toArray(),
+            table.getPartitionKey().stream().mapToInt(columns::indexOf).toArray(),
+            table.getClusteringColumns().keySet().stream().mapToInt(columns::indexOf).toArray(),
+            tokenOrder(partitioner(source)),
+            clusteringOrder,
+            pageSize);
+        
+        tokenRangeScanner.runParallel(job, ranges, concurrency, () -> new Totals(totals.maxDifferences),
+            (range, stopped, local) -> compareRange(job, sides, range, stopped, local), totals::merge);
+        
+        if (job.isCancelRequested()) {
+            return;
+        }
+        synchronized (job) {
+            job.setResult(new CompareResponse(
+                clusterId,
+                targetClusterId,
+                table.getKeyspace().asInternal(),
+                table.getName().asInternal(),
+                targetTable.getKeyspace().asInternal(),
+                targetTable.getName().asInternal(),
+                totals.sourceRows,
+                totals.targetRows,
+                ranges.size(),
+                totals.rangesDiffering,
+                totals.segmentsHashed,
+                totals.missingInTarget,
+                totals.missingInSource,
+                totals.mismatched,
+                new ArrayList<>(totals.differences),
+                totals.differenceCount() > totals.differences.size(),
+                System.currentTimeMillis() - startTime
+            ));
+        }
+    }
+    
+    /**
+     * Digests the slice on both sides and compares its rows only if the digests differ.
+     * Returns the number of source rows in the slice.
+     */
+    private long compareRange(Job job, Sides sides, ScanRange range, BooleanSupplier stopped, Totals totals) {
+        Digest sourceDigest = digest(job, sides.source, sides.sourceStatements, sides, range, stopped);
+        Digest targetDigest = digest(job, sides.target, sides.targetStatements, sides, range, stopped);
+        totals.segmentsHashed++;
+        totals.sourceRows += sourceDigest.rows;
+        totals.targetRows += targetDigest.rows;
+        if (stopped.getAsBoolean() || sourceDigest.matches(targetDigest)) {
+            return sourceDigest.rows;
+        }
+        totals.rangesDiffering++;
+        // Merging reads each side once, as digesting the parts of the slice would, so it is not split further
+        compareRows(sides, range, stopped, totals);
+        return sourceDigest.rows;
+    }
+    
+    private Digest digest(Job job, CqlSession session, TokenRangeScanner.RangeStatements statements, Sides sides,
+                          ScanRange range, BooleanSupplier stopped) {
+        MessageDigest digest = newDigest();
+        long[] pending = new long[1];
+        long rows = tokenRangeScanner.scan(session, tokenRangeScanner.bind(statements, range, sides.pageSize),
+            stopped, row -> {
+                updateDigest(digest, row, sides.columns.size());
+                // Progress counts the first pass over each side, not the re-reads of differing slices
+                if (++pending[0] == PROGRESS_BATCH) {
+                    job.addRows(pending[0]);
+                    pending[0] = 0;
+                }
+            });
+        job.addRows(pending[0]);
+        return new Digest(digest.digest(), rows);
+    }
+    
+    /**
+     * Compares a differing slice row by row. Both sides come back in token and clustering
+     * order, so they are merged like sorted lists and only the current row of each side is
+     * held. When a clustering type has no known order, rows are matched per partition by
+     * clustering key instead, holding the keys and hashes of one source partition.
+     */
+    private void compareRows(Sides sides, ScanRange range, BooleanSupplier stopped, Totals totals) {
+        Cursor source = new Cursor(sides.source.execute(
+            tokenRangeScanner.bind(sides.sourceStatements, range, sides.pageSize)));
+        Cursor target = new Cursor(sides.target.execute(
+            tokenRangeScanner.bind(sides.targetStatements, range, sides.pageSize)));
+        
+        while ((source.current != null || target.current != null) && !stopped.getAsBoolean()) {
+            int c = source.current == null ? 1
+                    : target.current == null ? -1
+                    : comparePartitions(source.current, target.current, sides);
+            if (c == 0 && sides.clusteringOrder == null) {
+                comparePartition(source, target, sides, totals);
+                continue;
+            }
+            if (c == 0) {
+                c = compareClustering(source.current, target.current, sides);
+            }
+            
+            if (c < 0) {
+                totals.difference(decodeKey(source.current, sides), "missing_in_target");
+                source.advance();
+            } else if (c > 0) {
+                totals.difference(decodeKey(target.current, sides), "missing_in_source");
+                target.advance();
+            } else {
+                if (!sameValues(source.current, target.current, sides.columns.size())) {
+                    totals.difference(decodeKey(source.current, sides), "mismatch");
+                }
+                source.advance();
+                target.advance();
+            }
+        }
+    }
+    
+    /**
+     * Compares the partition both cursors are at by clustering key, and moves both past it.
+     */
+    private void comparePartition(Cursor source, Cursor target, Sides sides, Totals totals) {
+        Row partition = source.current;
+        Map<List<ByteBuffer>, byte[]> sourceHashes = new LinkedHashMap<>();
+        while (source.current != null && comparePartitions(source.current, partition, sides) == 0) {
+            sourceHashes.put(clusteringKey(source.current, sides), rowHash(source.current, sides.columns.size()));
+            source.advance();
+        }
+        while (target.current != null && comparePartitions(target.current, partition, sides) == 0) {
+            byte[] sourceHash = sourceHashes.remove(clusteringKey(target.current, sides));
+            if (sourceHash == null) {
+                totals.difference(decodeKey(target.current, sides), "missing_in_source");
+            } else if (!Arrays.equals(sourceHash, rowHash(target.current, sides.columns.size()))) {
+                totals.difference(decodeKey(target.current, sides), "mismatch");
+            }
+            target.advance();
+        }
+        for (List<ByteBuffer> clustering : sourceHashes.keySet()) {
+            totals.difference(decodeKey(partition, clustering, sides), "missing_in_target");
+        }
+    }
+    
+    private int comparePartitions(Row left, Row right, Sides sides) {
+        int tokenIndex = sides.columns.size();
+        int c = sides.tokenOrder.compare(left.getBytesUnsafe(tokenIndex), right.getBytesUnsafe(tokenIndex));
+        if (c != 0) {
+            return c;
+        }
+        // Same token - Cassandra orders colliding partitions by their serialized key
+        List<ByteBuffer> leftKey = new ArrayList<>(sides.partitionKeyIndexes.length);
+        List<ByteBuffer> rightKey = new ArrayList<>(sides.partitionKeyIndexes.length);
+        for (int index : sides.partitionKeyIndexes) {
+            leftKey.add(left.getBytesUnsafe(index));
+            rightKey.add(right.getBytesUnsafe(index));
+        }
+        return CqlOrdering.comparePartitionKeys(leftKey, rightKey);
+    }
+    
+    private int compareClustering(Row left, Row right, Sides sides) {
+        for (int i = 0; i < sides.clusteringIndexes.length; i++) {
+            ByteBuffer leftValue = left.getBytesUnsafe(sides.clusteringIndexes[i]);
+            ByteBuffer rightValue = right.getBytesUnsafe(sides.clusteringIndexes[i]);
+            if (leftValue == null || rightValue == null) {
+                // Only the static row of a partition has no clustering values, and it comes first
+                if (leftValue != rightValue) {
+                    return leftValue == null ? -1 : 1;
+                }
+                continue;
+            }
+            int c = sides.clusteringOrder.get(i).compare(leftValue, rightValue);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+    
+    private Comparator<ByteBuffer> tokenOrder(String partitioner) {
+        // token() returns a bigint for Murmur3, a varint for Random and a blob for ByteOrdered
+        if (partitioner.endsWith("Murmur3Partitioner")) {
+            return CqlOrdering.forType(DataTypes.BIGINT);
+        }
+        if (partitioner.endsWith("RandomPartitioner")) {
+            return CqlOrdering.forType(DataTypes.VARINT);
+        }
+        return CqlOrdering.forType(DataTypes.BLOB);
+    }
+    
+    private void validateCompatible(CqlSession source, CqlSession target, TableMetadata table,
+                                    TableMetadata targetTable) {
+        String sourcePartitioner = partitioner(source);
+        String targetPartitioner = partitioner(target);
+        if (!sourcePartitioner.equals(targetPartitioner)) {
+            throw new IllegalArgumentException(String.format(
+                "Clusters use different partitioners (%s and %s) - token ranges cannot be compared",
+                sourcePartitioner, targetPartitioner));
+        }
+        List<String> sourceKey = table.getPrimaryKey().stream()
+                .map(column -> column.getName().asInternal())
+                .collect(Collectors.toList());
+        List<String> targetKey = targetTable.getPrimaryKey().stream()
+                .map(column -> column.getName().asInternal())
+                .collect(Collectors.toList());
+        if (!sourceKey.equals(targetKey)) {
+            throw new IllegalArgumentException("Primary keys differ: " + sourceKey + " and " + targetKey);
+        }
+        for (ColumnMetadata column : table.getColumns().values()) {
+            if (!targetTable.getColumn(column.getName()).isPresent()) {
+                throw new IllegalArgumentException("Target table has no column " + column.getName().asInternal());
+            }
+        }
+    }
+    
+    private String partitioner(CqlSession session) {
+        return session.getMetadata().getTokenMap()
+                .map(TokenMap::getPartitionerName)
+                .orElseThrow(() -> new IllegalStateException("Token metadata is not available for this cluster"));
+    }
+    
+    private void updateDigest(MessageDigest digest, Row row, int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            ByteBuffer value = row.getBytesUnsafe(i);
+            // Length-prefix every value so that null, empty and shifted values all differ
+            int length = value == null ? -1 : value.remaining();
+            digest.update((byte) (length >>> 24));
+            digest.update((byte) (length >>> 16));
+            digest.update((byte) (length >>> 8));
+            digest.update((byte) length);
+            if (value != null) {
+                digest.update(value.duplicate());
+            }
+        }
+    }
+    
+    private byte[] rowHash(Row row, int columnCount) {
+        MessageDigest digest = newDigest();
+        updateDigest(digest, row, columnCount);
+        return digest.digest();
+    }
+    
+    private boolean sameValues(Row left, Row right, int columnCount) {
+        for (int i = 0; i < columnCount; i++) {
+            if (!Objects.equals(left.getBytesUnsafe(i), right.getBytesUnsafe(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private List<ByteBuffer> clusteringKey(Row row, Sides sides) {
+        List<ByteBuffer> key = new ArrayList<>(sides.clusteringIndexes.length);
+        for (int index : sides.clusteringIndexes) {
+            ByteBuffer value = row.getBytesUnsafe(index);
+            // Copied, so the key does not keep the whole page it was read from alive
+            key.add(value == null ? null : ByteBuffer.allocate(value.remaining()).put(value.duplicate()).flip());
+        }
+        return key;
+    }
+    
+    private List<Object> decodeKey(Row row, Sides sides) {
+        List<Object> key = new ArrayList<>(sides.primaryKeyIndexes.length);
+        for (int index : sides.primaryKeyIndexes) {
+            key.add(valueConverter.toJsonValue(row.getObject(index), sides.columns.get(index).getType(),
+                                               sides.codecRegistry));
+        }
+        return key;
+    }
+    
+    private List<Object> decodeKey(Row partition, List<ByteBuffer> clustering, Sides sides) {
+        List<Object> key = new ArrayList<>(sides.primaryKeyIndexes.length);
+        for (int index : sides.partitionKeyIndexes) {
+            key.add(valueConverter.toJsonValue(partition.getObject(index), sides.columns.get(index).getType(),
+                                               sides.codecRegistry));
+        }
+        for (int i = 0; i < clustering.size(); i++) {
+            DataType type = sides.columns.get(sides.clusteringIndexes[i]).getType();
+            Object value = clustering.get(i) == null ? null
+                    : sides.codecRegistry.codecFor(type).decode(clustering.get(i).duplicate(), ProtocolVersion.DEFAULT);
+            key.add(valueConverter.toJsonValue(value, type, sides.codecRegistry));
+        }
+        return key;
+    }
+    
+    private MessageDigest newDigest() {
+        try {
+            // Cassandra's own repair Merkle trees use MD5 as well - speed matters, not collision resistance
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.request.CopyRequest;
+import com.cassandra.browser.util.RateLimiter;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Copies a table from one connected cluster to another. Token ranges of the source
+ * are read in parallel and every row is written to the target with a prepared INSERT
+ * sent through executeAsync. A semaphore caps the writes in flight, and a reader
+ * blocks on it once the target falls behind, which in turn stops it from fetching
+ * further pages. A range only counts as copied once all of its writes are
+ * acknowledged, so a resumed copy starts again from the ranges that were not.
+ */
+@Service
+public class TableCopyService {
+    
+    private static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    private static final int MAX_IN_FLIGHT = 2048;
+    private static final int RANGES_PER_WORKER = 16;
+    private static final int RATE_BATCH = 100;
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(30);
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    /**
+     * Column layout of the rows read from the source. Every column is selected first,
+     * followed by TTL(c) and WRITETIME(c) pairs for the columns that support them.
+     */
+    private static class Layout {
+        private final int[] primaryKeyIndexes;
+        private final int[] clusteringIndexes;
+        private final int[] cellIndexes; // regular and static columns
+        private final int[] metadataIndexes; // per cell column, index of its TTL (WRITETIME follows), or -1
+        private final boolean preserveTtl;
+        private final boolean preserveWritetime;
+        
+        Layout(int[] primaryKeyIndexes, int[] clusteringIndexes, int[] cellIndexes, int[] metadataIndexes,
+               boolean preserveTtl, boolean preserveWritetime) {
+            this.primaryKeyIndexes = primaryKeyIndexes;
+            this.clusteringIndexes = clusteringIndexes;
+            this.cellIndexes = cellIndexes;
+            this.metadataIndexes = metadataIndexes;
+            this.preserveTtl = preserveTtl;
+            this.preserveWritetime = preserveWritetime;
+        }
+        
+        boolean preservesMetadata() {
+            return preserveTtl || preserveWritetime;
+        }
+    }
+    
+    /**
+     * A prepared INSERT and, for every selected column, its bind position in it or -1
+     * when the INSERT does not write that column. TTL and TIMESTAMP markers follow.
+     */
+    private static class Insert {
+        private final PreparedStatement statement;
+        private final int[] positions;
+        private final int metadataPosition;
+        
+        Insert(PreparedStatement statement, int[] positions, int metadataPosition) {
+            this.statement = statement;
+            this.positions = positions;
+            this.metadataPosition = metadataPosition;
+        }
+    }
+    
+    public Job startCopy(String clusterId, String keyspaceName, String tableName, CopyRequest request) {
+        CqlSession source = connectionManager.getSession(clusterId);
+        CqlSession target = connectionManager.getSession(request.getTargetClusterId());
+        String targetKeyspace = request.getTargetKeyspace() != null && !request.getTargetKeyspace().isEmpty()
+                ? request.getTargetKeyspace() : keyspaceName;
+        String targetTableName = request.getTargetTable() != null && !request.getTargetTable().isEmpty()
+                ? request.getTargetTable() : tableName;
+        if (clusterId.equals(request.getTargetClusterId()) && keyspaceName.equals(targetKeyspace)
+                && tableName.equals(targetTableName)) {
+            throw new IllegalArgumentException("Source and target are the same table");
+        }
+        TableMetadata table = tokenRangeScanner.getTableMetadata(source, keyspaceName, tableName);
+        TableMetadata targetTable = tokenRangeScanner.getTableMetadata(target, targetKeyspace, targetTableName);
+        validateCompatible(table, targetTable);
+        
+        int concurrency = tokenRangeScanner.resolveConcurrency(request.getConcurrency());
+        int pageSize = tokenRangeScanner.resolvePageSize(request.getPageSize());
+        int maxInFlight = request.getMaxInFlight() == null ? DEFAULT_MAX_IN_FLIGHT : request.getMaxInFlight();
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight must be at least 1");
+        }
+        int resolvedMaxInFlight = Math.min(maxInFlight, MAX_IN_FLIGHT);
+        if (request.getMaxRowsPerSecond() != null && request.getMaxRowsPerSecond() < 1) {
+            throw new IllegalArgumentException("Max rows per second must be at least 1");
+        }
+        boolean preserveTtl = Boolean.TRUE.equals(request.getPreserveTtl());
+        boolean preserveWritetime = Boolean.TRUE.equals(request.getPreserveWritetime());
+        
+        List<ScanRange> ranges = tokenRangeScanner.splitRing(source, concurrency * RANGES_PER_WORKER);
+        
+        Job job = new Job("copy", clusterId, keyspaceName, tableName);
+        job.setTotalRanges(ranges.size());
+        job.setTask(() -> runCopy(job, clusterId, request.getTargetClusterId(), table, targetTable, ranges,
+                                  concurrency, pageSize, resolvedMaxInFlight, request.getMaxRowsPerSecond(),
+                                  preserveTtl, preserveWritetime));
+        return jobRegistry.start(job);
+    }
+    
+    private void runCopy(Job job, String clusterId, String targetClusterId, TableMetadata table,
+                         TableMetadata targetTable, List<ScanRange> ranges, int concurrency, int pageSize,
+                         int maxInFlight, Integer maxRowsPerSecond, boolean preserveTtl,
+                         boolean preserveWritetime) {
+        CqlSession source = connectionManager.getSession(clusterId);
+        CqlSession target = connectionManager.getSession(targetClusterId);
+        
+        List<ColumnMetadata> columns = new ArrayList<>(table.getColumns().values());
+        List<ColumnMetadata> primaryKey = table.getPrimaryKey();
+        List<String> select = columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.toList());
+        List<Integer> cellIndexes = new ArrayList<>();
+        List<Integer> metadataIndexes = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMetadata column = columns.get(i);
+            if (primaryKey.contains(column)) {
+                continue;
+            }
+            cellIndexes.add(i);
+            if ((preserveTtl || preserveWritetime) && supportsWritetime(column.getType())) {
+                metadataIndexes.add(select.size());
+                String name = column.getName().asCql(true);
+                select.add("TTL(" + name + ")");
+                select.add("WRITETIME(" + name + ")");
+            } else {
+                metadataIndexes.add(-1);
+            }
+        }
+        Layout layout = new Layout(
+            primaryKey.stream().mapToInt(columns::indexOf).toArray(),
+            table.getClusteringColumns().keySet().stream().mapToInt(columns::indexOf).toArray(),
+            cellIndexes.stream().mapToInt(Integer::intValue).toArray(),
+            metadataIndexes.stream().mapToInt(Integer::intValue).toArray(),
+            preserveTtl,
+            preserveWritetime);
+        
+        TokenRangeScanner.RangeStatements statements =
+            tokenRangeScanner.prepare(clusterId, source, table, String.join(", ", select));
+        Insert insert = prepareInsert(targetClusterId, target, targetTable, columns, columns,
+                                      preserveTtl, preserveWritetime);
+        // A partition holding only static data is read as one row with null clustering columns,
+        // which cannot be bound - it is written with the partition key and static columns only
+        List<ColumnMetadata> staticColumns = columns.stream()
+                .filter(column -> table.getPartitionKey().contains(column) || column.isStatic())
+                .collect(Collectors.toList());
+        Insert staticInsert = staticColumns.size() > table.getPartitionKey().size()
+                ? prepareInsert(targetClusterId, target, targetTable, columns, staticColumns,
+                                preserveTtl, preserveWritetime)
+                : null;
+        
+        Writer writer = new Writer(job, target, maxInFlight,
+                                   maxRowsPerSecond != null ? new RateLimiter(maxRowsPerSecond) : null);
+        
+        tokenRangeScanner.runParallel(job, ranges, concurrency, (range, stopped) -> {
+            Phaser rangeWrites = new Phaser(1);
+            long rows;
+            try {
+                rows = tokenRangeScanner.scan(source, tokenRangeScanner.bind(statements, range, pageSize),
+                    () -> stopped.getAsBoolean() || writer.isStopped(),
+                    row -> writer.write(toStatement(row, isStaticOnly(row, layout) && staticInsert != null
+                        ? staticInsert : insert, layout), rangeWrites));
+            } finally {
+                // The range is only complete once the target has acknowledged every write
+                rangeWrites.arriveAndAwaitAdvance();
+            }
+            writer.rethrow();
+            return rows;
+        });
+        
+        if (job.isCancelRequested()) {
+            return;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetClusterId", targetClusterId);
+        result.put("targetKeyspace", targetTable.getKeyspace().asInternal());
+        result.put("targetTable", targetTable.getName().asInternal());
+        result.put("rowsCopied", job.getRowCount());
+        result.put("preserveTtl", preserveTtl);
+        result.put("preserveWritetime", preserveWritetime);
+        job.setResult(result);
+    }
+    
+    /**
+     * Builds the writes for one source row. Without TTL or writetime preservation this is a
+     * single INSERT. With it, cells are grouped by their TTL and write timestamp and each
+     * group is inserted USING those values - bound with the same prepared statement, the
+     * columns of other groups left unset - and the groups go out as one unlogged batch,
+     * which stays on a single partition.
+     */
+    private Statement<?> toStatement(Row row, Insert insert, Layout layout) {
+        if (!layout.preservesMetadata()) {
+            BoundStatementBuilder builder = bindKey(insert, row, layout);
+            for (int index : layout.cellIndexes) {
+                if (insert.positions[index] >= 0 && row.getBytesUnsafe(index) != null) {
+                    // Raw bytes are copied as they are - the target column types match the source
+                    builder.setBytesUnsafe(insert.positions[index], row.getBytesUnsafe(index));
+                }
+            }
+            return finish(builder);
+        }
+        
+        Map<List<Long>, List<Integer>> groups = new LinkedHashMap<>();
+        List<Integer> withoutMetadata = new ArrayList<>();
+        List<Long> newest = null;
+        for (int i = 0; i < layout.cellIndexes.length; i++) {
+            int index = layout.cellIndexes[i];
+            if (insert.positions[index] < 0 || row.getBytesUnsafe(index) == null) {
+                continue; // unset, so no tombstone is written
+            }
+            int metadataIndex = layout.metadataIndexes[i];
+            if (metadataIndex < 0) {
+                withoutMetadata.add(index);
+                continue;
+            }
+            long ttl = row.isNull(metadataIndex) ? 0 : row.getInt(metadataIndex);
+            long writetime = row.getLong(metadataIndex + 1);
+            List<Long> key = List.of(layout.preserveTtl ? ttl : 0L, layout.preserveWritetime ? writetime : 0L);
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(index);
+            if (newest == null || writetime > newest.get(1)) {
+                newest = List.of(key.get(0), writetime);
+            }
+        }
+        // Non-frozen collections and UDTs have no WRITETIME - they go with the newest cells
+        if (!withoutMetadata.isEmpty()) {
+            List<Long> key = newest != null
+                    ? List.of(newest.get(0), layout.preserveWritetime ? newest.get(1) : 0L)
+                    : null;
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).addAll(withoutMetadata);
+        }
+        if (groups.isEmpty()) {
+            // Only the primary key is set - the row marker has no readable timestamp
+            return finish(bindKey(insert, row, layout));
+        }
+        
+        List<BatchableStatement<?>> writes = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Long>, List<Integer>> group : groups.entrySet()) {
+            BoundStatementBuilder builder = bindKey(insert, row, layout);
+            for (int index : group.getValue()) {
+                builder.setBytesUnsafe(insert.positions[index], row.getBytesUnsafe(index));
+            }
+            List<Long> key = group.getKey();
+            int next = insert.metadataPosition;
+            if (key != null && layout.preserveTtl) {
+                builder.setInt(next, key.get(0).intValue());
+            }
+            if (layout.preserveTtl) {
+                next++;
+            }
+            if (key != null && layout.preserveWritetime) {
+                builder.setLong(next, key.get(1));
+            }
+            writes.add(finish(builder));
+        }
+        if (writes.size() == 1) {
+            return writes.get(0);
+        }
+        return BatchStatement.newInstance(DefaultBatchType.UNLOGGED, writes)
+                .setIdempotent(true)
+                .setTimeout(WRITE_TIMEOUT);
+    }
+    
+    private BoundStatementBuilder bindKey(Insert insert, Row row, Layout layout) {
+        BoundStatementBuilder builder = insert.statement.boundStatementBuilder();
+        for (int index : layout.primaryKeyIndexes) {
+            if (insert.positions[index] >= 0) {
+                builder.setBytesUnsafe(insert.positions[index], row.getBytesUnsafe(index));
+            }
+        }
+        return builder;
+    }
+    
+    private boolean isStaticOnly(Row row, Layout layout) {
+        for (int index : layout.clusteringIndexes) {
+            if (row.getBytesUnsafe(index) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private BatchableStatement<?> finish(BoundStatementBuilder builder) {
+        // Plain INSERTs are idempotent, so retries and speculative executions are safe
+        return builder.setIdempotence(true).setTimeout(WRITE_TIMEOUT).build();
+    }
+    
+    /**
+     * Sends writes asynchronously with at most maxInFlight requests outstanding across
+     * all ranges. The first failure stops the copy.
+     */
+    private static class Writer {
+        private final Job job;
+        private final CqlSession session;
+        private final Semaphore permits;
+        private final RateLimiter rateLimiter;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private long unthrottled;
+        
+        Writer(Job job, CqlSession session, int maxInFlight, RateLimiter rateLimiter) {
+            this.job = job;
+            this.session = session;
+            this.permits = new Semaphore(maxInFlight);
+            this.rateLimiter = rateLimiter;
+        }
+        
+        void write(Statement<?> statement, Phaser rangeWrites) {
+            if (isStopped()) {
+                return;
+            }
+            if (rateLimiter != null && countForRate()) {
+                rateLimiter.acquire(RATE_BATCH);
+            }
+            // Blocks the reader while the target is behind - this is the backpressure
+            permits.acquireUninterruptibly();
+            rangeWrites.register();
+            session.executeAsync(statement).whenComplete((result, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                } else {
+                    job.addRows(1);
+                }
+                permits.release();
+                rangeWrites.arriveAndDeregister();
+            });
+        }
+        
+        private synchronized boolean countForRate() {
+            return ++unthrottled % RATE_BATCH == 0;
+        }
+        
+        boolean isStopped() {
+            return failure.get() != null || job.isCancelRequested();
+        }
+        
+        void rethrow() {
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new IllegalStateException("Write failed: " + error.getMessage(), error);
+            }
+        }
+    }
+    
+    private Insert prepareInsert(String targetClusterId, CqlSession target, TableMetadata targetTable,
+                                 List<ColumnMetadata> selected, List<ColumnMetadata> columns,
+                                 boolean preserveTtl, boolean preserveWritetime) {
+        PreparedStatement statement = preparedStatementCache.prepare(targetClusterId, target, null,
+            insertQuery(columns, targetTable, preserveTtl, preserveWritetime));
+        int[] positions = selected.stream().mapToInt(columns::indexOf).toArray();
+        return new Insert(statement, positions, columns.size());
+    }
+    
+    private String insertQuery(List<ColumnMetadata> columns, TableMetadata targetTable, boolean preserveTtl,
+                               boolean preserveWritetime) {
+        String names = columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "));
+        String markers = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+        StringBuilder query = new StringBuilder("INSERT INTO ")
+                .append(targetTable.getKeyspace().asCql(true)).append('.').append(targetTable.getName().asCql(true))
+                .append(" (").append(names).append(") VALUES (").append(markers).append(')');
+        // Unset TTL or TIMESTAMP markers fall back to the defaults, which rows without metadata rely on
+        if (preserveTtl && preserveWritetime) {
+            query.append(" USING TTL ? AND TIMESTAMP ?");
+        } else if (preserveTtl) {
+            query.append(" USING TTL ?");
+        } else if (preserveWritetime) {
+            query.append(" USING TIMESTAMP ?");
+        }
+        return query.toString();
+    }
+    
+    private void validateCompatible(TableMetadata table, TableMetadata targetTable) {
+        List<String> sourceKey = table.getPrimaryKey().stream()
+                .map(column -> column.getName().asInternal())
+                .collect(Collectors.toList());
+        List<String> targetKey = targetTable.getPrimaryKey().stream()
+                .map(column -> column.getName().asInternal())
+                .collect(Collectors.toList());
+        if (!sourceKey.equals(targetKey)) {
+            throw new IllegalArgumentException("Primary keys differ: " + sourceKey + " and " + targetKey);
+        }
+        for (ColumnMetadata column : table.getColumns().values()) {
+            if (column.getType().equals(DataTypes.COUNTER)) {
+                throw new IllegalArgumentException("Counter tables cannot be copied with INSERT");
+            }
+            ColumnMetadata targetColumn = targetTable.getColumn(column.getName())
+                    .orElseThrow(() -> new IllegalArgumentException(
+                        "Target table has no column " + column.getName().asInternal()));
+            if (!targetColumn.getType().equals(column.getType())) {
+                throw new IllegalArgumentException(String.format("Column %s is %s on the source but %s on the target",
+                    column.getName().asInternal(), column.getType().asCql(false, true),
+                    targetColumn.getType().asCql(false, true)));
+            }
+        }
+    }
+    
+    private boolean supportsWritetime(DataType type) {
+        if (type instanceof ListType) {
+            return ((ListType) type).isFrozen();
+        }
+        if (type instanceof SetType) {
+            return ((SetType) type).isFrozen();
+        }
+        if (type instanceof MapType) {
+            return ((MapType) type).isFrozen();
+        }
+        if (type instanceof UserDefinedType) {
+            return ((UserDefinedType) type).isFrozen();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,238 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.request.ExportRequest;
+import com.cassandra.browser.util.CqlValueConverter;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports a whole table to a local file. The ring is split into token ranges that
+ * are read in parallel, each range into its own part file. Parts of completed ranges
+ * survive a cancel or failure, so a resumed export only reads the missing ranges.
+ * When every range is done the parts are concatenated into the final file - gzip
+ * members concatenate into a valid gzip stream, so compressed parts are not re-encoded.
+ */
+@Service
+public class TableExportService {
+    
+    private static final String FORMAT_CSV = "csv";
+    private static final String FORMAT_NDJSON = "ndjson";
+    private static final int RANGES_PER_WORKER = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_BATCH = 1000;
+    
+    @Value("${export.directory:${java.io.tmpdir}/cassandra-browser-exports}")
+    private String exportDirectory;
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    public Job startExport(String clusterId, String keyspaceName, String tableName, ExportRequest request) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        
+        String format = resolveFormat(request.getFormat());
+        boolean compress = request.getCompress() == null || request.getCompress();
+        int concurrency = tokenRangeScanner.resolveConcurrency(request.getConcurrency());
+        int pageSize = tokenRangeScanner.resolvePageSize(request.getPageSize());
+        
+        // Ranges are fixed for the lifetime of the job so that part files line up on resume
+        List<ScanRange> ranges = tokenRangeScanner.splitRing(session, concurrency * RANGES_PER_WORKER);
+        
+        Job job = new Job("export", clusterId, keyspaceName, tableName);
+        job.setTotalRanges(ranges.size());
+        Path jobDirectory = Paths.get(exportDirectory, job.getId());
+        job.setTask(() -> {
+            try {
+                runExport(job, clusterId, table, ranges, jobDirectory, format, compress, concurrency, pageSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return jobRegistry.start(job);
+    }
+    
+    private void runExport(Job job, String clusterId, TableMetadata table, List<ScanRange> ranges,
+                           Path jobDirectory, String format, boolean compress,
+                           int concurrency, int pageSize) throws IOException {
+        // Look the session up again - a resumed job may run after a reconnect
+        CqlSession session = connectionManager.getSession(clusterId);
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        List<ColumnMetadata> columns = new ArrayList<>(table.getColumns().values());
+        String selectClause = columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "));
+        TokenRangeScanner.RangeStatements statements =
+            tokenRangeScanner.prepare(clusterId, session, table, selectClause);
+        
+        Files.createDirectories(jobDirectory);
+        String extension = "." + format + (compress ? ".gz" : "");
+        
+        tokenRangeScanner.runParallel(job, ranges, concurrency, (range, stopped) -> {
+            Path part = partFile(jobDirectory, range, extension);
+            Path temporary = part.resolveSibling(part.getFileName() + ".tmp");
+            long rows;
+            try (OutputStream out = open(temporary, compress)) {
+                long[] pending = new long[1];
+                rows = tokenRangeScanner.scan(session, tokenRangeScanner.bind(statements, range, pageSize),
+                    stopped, row -> {
+                        writeRow(out, row, columns, format, codecRegistry);
+                        if (++pending[0] == PROGRESS_BATCH) {
+                            job.addRows(pending[0]);
+                            pending[0] = 0;
+                        }
+                    });
+                job.addRows(pending[0]);
+            }
+            if (!stopped.getAsBoolean()) {
+                // Only a fully written range becomes a part - partial ones are rewritten on resume
+                Files.move(temporary, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return rows;
+        });
+        
+        if (job.isCancelRequested()) {
+            return;
+        }
+        
+        Path output = jobDirectory.resolve(table.getName().asInternal() + extension);
+        try (OutputStream out = Files.newOutputStream(output)) {
+            if (FORMAT_CSV.equals(format)) {
+                // The header goes in as its own gzip member ahead of the parts
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                try (OutputStream headerOut = open(header, compress)) {
+                    headerOut.write(csvHeader(columns));
+                }
+                header.writeTo(out);
+            }
+            for (ScanRange range : ranges) {
+                Files.copy(partFile(jobDirectory, range, extension), out);
+            }
+        }
+        for (ScanRange range : ranges) {
+            Files.deleteIfExists(partFile(jobDirectory, range, extension));
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", output.toAbsolutePath().toString());
+        result.put("format", format);
+        result.put("compressed", compress);
+        result.put("bytes", Files.size(output));
+        job.setResult(result);
+    }
+    
+    private String resolveFormat(String format) {
+        if (format == null || format.isEmpty()) {
+            return FORMAT_CSV;
+        }
+        String normalized = format.toLowerCase();
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_NDJSON.equals(normalized)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+        return normalized;
+    }
+    
+    private Path partFile(Path jobDirectory, ScanRange range, String extension) {
+        return jobDirectory.resolve(String.format("part-%05d%s", range.getIndex(), extension));
+    }
+    
+    private OutputStream open(Path file, boolean compress) throws IOException {
+        return open(Files.newOutputStream(file), compress);
+    }
+    
+    private OutputStream open(OutputStream out, boolean compress) throws IOException {
+        if (compress) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+    
+    private void writeRow(OutputStream out, Row row, List<ColumnMetadata> columns, String format,
+                          CodecRegistry codecRegistry) {
+        try {
+            if (FORMAT_NDJSON.equals(format)) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    values.put(columns.get(i).getName().asInternal(), valueConverter.toJsonValue(row.getObject(i), columns.get(i).getType(), codecRegistry));
+                }
+                out.write(objectMapper.writeValueAsBytes(values));
+                out.write('\n');
+            } else {
+                StringBuilder line = new StringBuilder();
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    String value = valueConverter.format(row.getObject(i), columns.get(i).getType(), codecRegistry);
+                    appendCsvField(line, value);
+                }
+                line.append('\n');
+                out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private byte[] csvHeader(List<ColumnMetadata> columns) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendCsvField(line, columns.get(i).getName().asInternal());
+        }
+        line.append('\n');
+        return line.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        // An empty quoted field keeps empty strings apart from nulls
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,323 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.response.TableDetailsResponse;
+import com.cassandra.browser.util.CqlValueConverter;
+import com.cassandra.browser.util.CsvReader;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a CSV file into a table. The header row names the columns; each record is bound
+ * to a prepared INSERT and rows of the same partition are grouped into small unlogged
+ * batches, which the driver routes to a replica of that partition. Writes are sent
+ * with executeAsync and a semaphore caps the number in flight.
+ */
+@Service
+public class TableLoadService {
+    
+    private static final int DEFAULT_BATCH_SIZE = 10;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    private static final int MAX_IN_FLIGHT = 2048;
+    // Pending partition groups are flushed once this many rows are buffered
+    private static final int FLUSH_THRESHOLD = 1000;
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(30);
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private CassandraMetadataService metadataService;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    public Job startLoad(String clusterId, String keyspaceName, String tableName, MultipartFile file,
+                         Integer batchSize, Integer maxInFlight) throws IOException {
+        CqlSession session = connectionManager.getSession(clusterId);
+        int resolvedBatchSize = resolve(batchSize, DEFAULT_BATCH_SIZE, MAX_BATCH_SIZE, "Batch size");
+        int resolvedMaxInFlight = resolve(maxInFlight, DEFAULT_MAX_IN_FLIGHT, MAX_IN_FLIGHT, "Max in-flight");
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        
+        TableDetailsResponse table = metadataService.getTableDetails(clusterId, keyspaceName, tableName);
+        if (table.getColumns() == null || table.getColumns().isEmpty()) {
+            throw new IllegalArgumentException("Table not found: " + keyspaceName + "." + tableName);
+        }
+        
+        // The upload is only valid for this request - keep a copy for the background job
+        Path upload = Files.createTempFile("cassandra-browser-load-", ".csv");
+        file.transferTo(upload);
+        
+        List<String> header;
+        try (CsvReader reader = open(upload)) {
+            header = reader.readRecord();
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        List<Integer> partitionKeyIndexes;
+        try {
+            partitionKeyIndexes = validateHeader(header, table);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        
+        Job job = new Job("load", clusterId, keyspaceName, tableName);
+        // The uploaded file is removed when the job ends, so it cannot be run again
+        job.setResumable(false);
+        job.setTask(() -> {
+            try {
+                runLoad(job, session, upload, header, partitionKeyIndexes, resolvedBatchSize, resolvedMaxInFlight);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (IOException ignored) {
+                    // Temp file cleanup is best effort
+                }
+            }
+        });
+        return jobRegistry.start(job);
+    }
+    
+    private void runLoad(Job job, CqlSession session, Path upload, List<String> header,
+                         List<Integer> partitionKeyIndexes, int batchSize, int maxInFlight) throws IOException {
+        String columns = header.stream()
+                .map(name -> CqlIdentifier.fromInternal(name).asCql(true))
+                .collect(Collectors.joining(", "));
+        String markers = header.stream().map(name -> "?").collect(Collectors.joining(", "));
+        String insert = "INSERT INTO " + CqlIdentifier.fromInternal(job.getKeyspace()).asCql(true) + "."
+            + CqlIdentifier.fromInternal(job.getTable()).asCql(true)
+            + " (" + columns + ") VALUES (" + markers + ")";
+        PreparedStatement prepared = preparedStatementCache.prepare(job.getClusterId(), session, null, insert);
+        
+        ColumnDefinitions variables = prepared.getVariableDefinitions();
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        
+        Writer writer = new Writer(job, session, maxInFlight);
+        Map<String, List<BatchableStatement<?>>> groups = new HashMap<>();
+        int buffered = 0;
+        
+        try (CsvReader reader = open(upload)) {
+            reader.readRecord(); // header
+            List<String> record;
+            while ((record = reader.readRecord()) != null && !writer.isStopped()) {
+                if (record.size() == 1 && record.get(0) == null) {
+                    continue; // blank line
+                }
+                if (record.size() != header.size()) {
+                    throw new IllegalArgumentException(String.format(
+                        "Line %d has %d fields, expected %d", reader.getRecordLineNumber(), record.size(), header.size()));
+                }
+                
+                BoundStatement statement;
+                try {
+                    statement = bind(prepared, variables, record, codecRegistry);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + reader.getRecordLineNumber() + ": " + e.getMessage(), e);
+                }
+                
+                String partitionKey = partitionKey(record, partitionKeyIndexes);
+                List<BatchableStatement<?>> group = groups.computeIfAbsent(partitionKey, key -> new ArrayList<>());
+                group.add(statement);
+                buffered++;
+                
+                if (group.size() >= batchSize) {
+                    writer.write(group);
+                    buffered -= group.size();
+                    groups.remove(partitionKey);
+                }
+                if (buffered >= FLUSH_THRESHOLD) {
+                    groups.values().forEach(writer::write);
+                    groups.clear();
+                    buffered = 0;
+                }
+            }
+            if (!writer.isStopped()) {
+                groups.values().forEach(writer::write);
+            }
+        } finally {
+            writer.awaitAll();
+        }
+        writer.rethrow();
+    }
+    
+    private BoundStatement bind(PreparedStatement prepared, ColumnDefinitions variables, List<String> record,
+                                CodecRegistry codecRegistry) {
+        BoundStatementBuilder builder = prepared.boundStatementBuilder();
+        for (int i = 0; i < record.size(); i++) {
+            DataType type = variables.get(i).getType();
+            Object value = valueConverter.convert(record.get(i), type, codecRegistry);
+            if (value == null) {
+                // Leave empty fields unset instead of writing tombstones
+                continue;
+            }
+            builder.set(i, value, codecRegistry.codecFor(type));
+        }
+        // Plain INSERTs are idempotent, so retries and speculative executions are safe
+        return builder.setIdempotence(true).setTimeout(WRITE_TIMEOUT).build();
+    }
+    
+    /**
+     * Sends writes asynchronously with at most maxInFlight requests outstanding.
+     * The first failure stops the load.
+     */
+    private static class Writer {
+        private final Job job;
+        private final CqlSession session;
+        private final Semaphore permits;
+        private final int maxInFlight;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        
+        Writer(Job job, CqlSession session, int maxInFlight) {
+            this.job = job;
+            this.session = session;
+            this.maxInFlight = maxInFlight;
+            this.permits = new Semaphore(maxInFlight);
+        }
+        
+        void write(List<BatchableStatement<?>> group) {
+            if (group.isEmpty() || isStopped()) {
+                return;
+            }
+            Statement<?> statement = group.size() == 1
+                    ? group.get(0)
+                    : BatchStatement.newInstance(DefaultBatchType.UNLOGGED, group)
+                        .setIdempotent(true)
+                        .setTimeout(WRITE_TIMEOUT);
+            int rows = group.size();
+            
+            permits.acquireUninterruptibly();
+            session.executeAsync(statement).whenComplete((result, error) -> {
+                if (error != null) {
+                    failure.compareAndSet(null, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                } else {
+                    job.addRows(rows);
+                }
+                permits.release();
+            });
+        }
+        
+        boolean isStopped() {
+            return failure.get() != null || job.isCancelRequested();
+        }
+        
+        void awaitAll() {
+            permits.acquireUninterruptibly(maxInFlight);
+            permits.release(maxInFlight);
+        }
+        
+        void rethrow() {
+            Throwable error = failure.get();
+            if (error != null) {
+                throw new IllegalStateException("Write failed: " + error.getMessage(), error);
+            }
+        }
+    }
+    
+    private List<Integer> validateHeader(List<String> header, TableDetailsResponse table) {
+        if (header == null || header.isEmpty()) {
+            throw new IllegalArgumentException("CSV file has no header row");
+        }
+        // Spreadsheet exports often start with a UTF-8 byte order mark
+        String first = header.get(0);
+        if (first != null && first.startsWith("\uFEFF")) {
+            header.set(0, first.substring(1));
+        }
+        Map<String, TableDetailsResponse.ColumnInfo> columns = new LinkedHashMap<>();
+        for (TableDetailsResponse.ColumnInfo column : table.getColumns()) {
+            columns.put(column.getName(), column);
+        }
+        
+        Set<String> seen = new HashSet<>();
+        for (String name : header) {
+            if (name == null || !columns.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown column in CSV header: " + name);
+            }
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Duplicate column in CSV header: " + name);
+            }
+        }
+        
+        List<Integer> partitionKeyIndexes = new ArrayList<>();
+        for (TableDetailsResponse.ColumnInfo column : columns.values()) {
+            String kind = column.getKind() != null ? column.getKind().toLowerCase() : "";
+            boolean partitionKey = "partition_key".equals(kind);
+            if ((partitionKey || "clustering".equals(kind)) && !seen.contains(column.getName())) {
+                throw new IllegalArgumentException("CSV header is missing primary key column: " + column.getName());
+            }
+            if (partitionKey) {
+                partitionKeyIndexes.add(header.indexOf(column.getName()));
+            }
+        }
+        return partitionKeyIndexes;
+    }
+    
+    private String partitionKey(List<String> record, List<Integer> partitionKeyIndexes) {
+        if (partitionKeyIndexes.size() == 1) {
+            return String.valueOf(record.get(partitionKeyIndexes.get(0)));
+        }
+        StringBuilder key = new StringBuilder();
+        for (int index : partitionKeyIndexes) {
+            key.append(record.get(index)).append('\u0000');
+        }
+        return key.toString();
+    }
+    
+    private CsvReader open(Path file) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+    
+    private int resolve(Integer requested, int defaultValue, int max, String name) {
+        if (requested == null) {
+            return defaultValue;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        return Math.min(requested, max);
+    }
+}
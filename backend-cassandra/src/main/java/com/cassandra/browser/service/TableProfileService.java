@@ -0,0 +1,290 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.request.ProfileRequest;
+import com.cassandra.browser.model.response.TableProfileResponse;
+import com.cassandra.browser.util.CqlValueConverter;
+import com.cassandra.browser.util.HyperLogLog;
+import com.cassandra.browser.util.SpaceSavingSketch;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Profiles the value distribution of every column of a table, either from a random
+ * sample or from a parallel scan of the whole ring. Each column is summarised by
+ * fixed-size sketches - HyperLogLog for the distinct count, Space-Saving for the most
+ * frequent values and a power-of-two histogram of value lengths - so memory does not
+ * grow with the table. Every range builds its own sketches, merged when it completes.
+ */
+@Service
+public class TableProfileService {
+    
+    private static final int HLL_PRECISION = 12; // 4 KB per column, ~1.6% standard error
+    private static final int HEAVY_HITTER_CAPACITY = 64;
+    private static final int DEFAULT_TOP_VALUES = 10;
+    private static final int MAX_TOP_VALUES = HEAVY_HITTER_CAPACITY / 2;
+    private static final int MAX_LABEL_LENGTH = 128;
+    private static final int LENGTH_BUCKETS = 33; // 0, 1, 2-3, 4-7, ... 2^31 and above
+    private static final int DEFAULT_SAMPLE_SIZE = 2000;
+    private static final int MAX_SAMPLE_SIZE = 5000;
+    private static final int RANGES_PER_WORKER = 16;
+    private static final int PROGRESS_BATCH = 1000;
+    
+    // Cardinality buckets follow the intake modeler: few distinct values is LOW,
+    // mostly distinct values is HIGH, anything in between is MEDIUM
+    private static final long LOW_MAX_DISTINCT = 100;
+    private static final double HIGH_MIN_DISTINCT_RATIO = 0.1;
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private TokenRangeScanner tokenRangeScanner;
+    
+    @Autowired
+    private TableSampler tableSampler;
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private CqlValueConverter valueConverter;
+    
+    @Autowired
+    private QueryMetrics queryMetrics;
+    
+    /**
+     * Sketches of one column. Not thread-safe - each range fills its own and merges it.
+     */
+    private static class ColumnSketch {
+        private final HyperLogLog distinct = new HyperLogLog(HLL_PRECISION);
+        private final SpaceSavingSketch heavyHitters = new SpaceSavingSketch(HEAVY_HITTER_CAPACITY);
+        private final long[] lengthBuckets = new long[LENGTH_BUCKETS];
+        private long rows;
+        private long nulls;
+        private long minLength = Long.MAX_VALUE;
+        private long maxLength;
+        private long totalLength;
+        
+        void merge(ColumnSketch other) {
+            distinct.merge(other.distinct);
+            heavyHitters.merge(other.heavyHitters);
+            for (int i = 0; i < LENGTH_BUCKETS; i++) {
+                lengthBuckets[i] += other.lengthBuckets[i];
+            }
+            rows += other.rows;
+            nulls += other.nulls;
+            minLength = Math.min(minLength, other.minLength);
+            maxLength = Math.max(maxLength, other.maxLength);
+            totalLength += other.totalLength;
+        }
+    }
+    
+    public CompletableFuture<TableProfileResponse> profileSample(String clusterId, String keyspaceName,
+                                                                 String tableName, Integer sampleSize,
+                                                                 Integer topValues) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        int resolvedSampleSize = resolve(sampleSize, DEFAULT_SAMPLE_SIZE, MAX_SAMPLE_SIZE, "Sample size");
+        int resolvedTopValues = resolve(topValues, DEFAULT_TOP_VALUES, MAX_TOP_VALUES, "Top values");
+        List<ColumnMetadata> columns = tableSampler.selectColumns(table);
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        
+        long startTime = System.currentTimeMillis();
+        String query = String.format("SELECT * FROM %s.%s", keyspaceName, tableName);
+        return queryMetrics.timeAsync(clusterId, keyspaceName, "profile", query, () ->
+            tableSampler.sample(clusterId, session, table, resolvedSampleSize))
+                .thenApply(rows -> {
+                    ColumnSketch[] sketches = newSketches(columns.size());
+                    for (Row row : rows) {
+                        add(sketches, row, columns, codecRegistry);
+                    }
+                    return toResponse(table, columns, sketches, true, resolvedTopValues, startTime);
+                });
+    }
+    
+    public Job startFullProfile(String clusterId, String keyspaceName, String tableName, ProfileRequest request) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        TableMetadata table = tokenRangeScanner.getTableMetadata(session, keyspaceName, tableName);
+        int concurrency = tokenRangeScanner.resolveConcurrency(request.getConcurrency());
+        int pageSize = tokenRangeScanner.resolvePageSize(request.getPageSize());
+        int topValues = resolve(request.getTopValues(), DEFAULT_TOP_VALUES, MAX_TOP_VALUES, "Top values");
+        
+        List<ScanRange> ranges = tokenRangeScanner.splitRing(session, concurrency * RANGES_PER_WORKER);
+        List<ColumnMetadata> columns = new ArrayList<>(table.getColumns().values());
+        // Kept across resumes - completed ranges are already merged and are not read again
+        ColumnSketch[] merged = newSketches(columns.size());
+        
+        Job job = new Job("profile", clusterId, keyspaceName, tableName);
+        job.setTotalRanges(ranges.size());
+        job.setTask(() -> runFullProfile(job, clusterId, table, columns, ranges, merged, concurrency,
+                                         pageSize, topValues));
+        return jobRegistry.start(job);
+    }
+    
+    private void runFullProfile(Job job, String clusterId, TableMetadata table, List<ColumnMetadata> columns,
+                                List<ScanRange> ranges, ColumnSketch[] merged, int concurrency,
+                                int pageSize, int topValues) {
+        long startTime = System.currentTimeMillis();
+        CqlSession session = connectionManager.getSession(clusterId);
+        CodecRegistry codecRegistry = session.getContext().getCodecRegistry();
+        String selectClause = columns.stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "));
+        TokenRangeScanner.RangeStatements statements =
+            tokenRangeScanner.prepare(clusterId, session, table, selectClause);
+        
+        tokenRangeScanner.runParallel(job, ranges, concurrency, () -> newSketches(columns.size()),
+            (range, stopped, sketches) -> {
+            long[] pending = new long[1];
+            long rows = tokenRangeScanner.scan(session, tokenRangeScanner.bind(statements, range, pageSize),
+                stopped, row -> {
+                    add(sketches, row, columns, codecRegistry);
+                    if (++pending[0] == PROGRESS_BATCH) {
+                        job.addRows(pending[0]);
+                        pending[0] = 0;
+                    }
+                });
+            job.addRows(pending[0]);
+            return rows;
+        }, sketches -> {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].merge(sketches[i]);
+            }
+        });
+        
+        if (job.isCancelRequested()) {
+            return;
+        }
+        synchronized (job) {
+            job.setResult(toResponse(table, columns, merged, false, topValues, startTime));
+        }
+    }
+    
+    private void add(ColumnSketch[] sketches, Row row, List<ColumnMetadata> columns, CodecRegistry codecRegistry) {
+        for (int i = 0; i < sketches.length; i++) {
+            ColumnSketch sketch = sketches[i];
+            sketch.rows++;
+            ByteBuffer bytes = row.getBytesUnsafe(i);
+            if (bytes == null) {
+                sketch.nulls++;
+                continue;
+            }
+            long length = bytes.remaining();
+            sketch.lengthBuckets[lengthBucket(length)]++;
+            sketch.minLength = Math.min(sketch.minLength, length);
+            sketch.maxLength = Math.max(sketch.maxLength, length);
+            sketch.totalLength += length;
+            
+            long hash = HyperLogLog.hash(bytes);
+            sketch.distinct.addHash(hash);
+            int index = i;
+            // The label is only formatted when a value enters the heavy-hitters sketch
+            sketch.heavyHitters.offer(hash, () -> label(row, index, columns.get(index), codecRegistry));
+        }
+    }
+    
+    private String label(Row row, int index, ColumnMetadata column, CodecRegistry codecRegistry) {
+        String value = valueConverter.format(row.getObject(index), column.getType(), codecRegistry);
+        if (value != null && value.length() > MAX_LABEL_LENGTH) {
+            return value.substring(0, MAX_LABEL_LENGTH) + "...";
+        }
+        return value;
+    }
+    
+    private TableProfileResponse toResponse(TableMetadata table, List<ColumnMetadata> columns,
+                                            ColumnSketch[] sketches, boolean sampled, int topValues,
+                                            long startTime) {
+        List<TableProfileResponse.ColumnProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnMetadata column = columns.get(i);
+            ColumnSketch sketch = sketches[i];
+            long nonNull = sketch.rows - sketch.nulls;
+            // The estimate can overshoot slightly - never report more distinct values than values
+            long distinct = Math.min(sketch.distinct.estimate(), nonNull);
+            
+            List<TableProfileResponse.ValueCount> top = sketch.heavyHitters.top(topValues).stream()
+                    .map(counter -> new TableProfileResponse.ValueCount(
+                        counter.getValue(), counter.getCount(), counter.getError()))
+                    .collect(Collectors.toList());
+            List<TableProfileResponse.LengthBucket> histogram = new ArrayList<>();
+            for (int bucket = 0; bucket < LENGTH_BUCKETS; bucket++) {
+                if (sketch.lengthBuckets[bucket] > 0) {
+                    long min = bucket == 0 ? 0 : 1L << (bucket - 1);
+                    long max = bucket == 0 ? 0 : (bucket == LENGTH_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1);
+                    histogram.add(new TableProfileResponse.LengthBucket(min, max, sketch.lengthBuckets[bucket]));
+                }
+            }
+            
+            profiles.add(new TableProfileResponse.ColumnProfile(
+                column.getName().asInternal(),
+                column.getType().asCql(false, true),
+                kind(table, column),
+                sketch.nulls,
+                sketch.rows == 0 ? 0 : (double) sketch.nulls / sketch.rows,
+                distinct,
+                cardinality(distinct, nonNull),
+                top,
+                nonNull == 0 ? 0 : sketch.minLength,
+                sketch.maxLength,
+                nonNull == 0 ? 0 : (double) sketch.totalLength / nonNull,
+                histogram
+            ));
+        }
+        long rowsScanned = sketches.length == 0 ? 0 : sketches[0].rows;
+        return new TableProfileResponse(table.getKeyspace().asInternal(), table.getName().asInternal(), sampled,
+                                        rowsScanned, profiles, System.currentTimeMillis() - startTime);
+    }
+    
+    private String cardinality(long distinct, long nonNull) {
+        if (nonNull == 0) {
+            return "UNKNOWN";
+        }
+        if (distinct <= LOW_MAX_DISTINCT) {
+            return "LOW";
+        }
+        return (double) distinct / nonNull >= HIGH_MIN_DISTINCT_RATIO ? "HIGH" : "MEDIUM";
+    }
+    
+    private String kind(TableMetadata table, ColumnMetadata column) {
+        if (table.getPartitionKey().contains(column)) {
+            return "partition_key";
+        }
+        if (table.getClusteringColumns().containsKey(column)) {
+            return "clustering";
+        }
+        return column.isStatic() ? "static" : "regular";
+    }
+    
+    private int lengthBucket(long length) {
+        return length == 0 ? 0 : Math.min(LENGTH_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(length));
+    }
+    
+    private ColumnSketch[] newSketches(int size) {
+        ColumnSketch[] sketches = new ColumnSketch[size];
+        for (int i = 0; i < size; i++) {
+            sketches[i] = new ColumnSketch();
+        }
+        return sketches;
+    }
+    
+    private int resolve(Integer requested, int defaultValue, int max, String name) {
+        if (requested == null) {
+            return defaultValue;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        return Math.min(requested, max);
+    }
+}
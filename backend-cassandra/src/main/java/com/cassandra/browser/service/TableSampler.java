@@ -0,0 +1,126 @@
+package com.cassandra.browser.service;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Draws a random sample of rows from a table. Start tokens are picked uniformly at random
+ * by hashing random keys with the cluster's partitioner, and a few rows are read after each
+ * start token. The slices are read in parallel, each routed to the replicas owning its start
+ * token, so a sample costs about as much as one LIMIT query but covers the whole ring.
+ */
+@Service
+public class TableSampler {
+    
+    private static final int ROWS_PER_SLICE = 5;
+    private static final double OVERSAMPLE = 1.5;
+    private static final int MAX_SLICES_PER_ROUND = 512;
+    private static final int MAX_ROUNDS = 3;
+    private static final Duration SLICE_TIMEOUT = Duration.ofSeconds(30);
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    /**
+     * Returns up to sampleSize distinct rows in random order. Rows are read with the table's
+     * columns in metadata order (see selectColumns).
+     */
+    public CompletableFuture<List<Row>> sample(String clusterId, CqlSession session, TableMetadata table,
+                                               int sampleSize) {
+        TokenMap tokenMap = session.getMetadata().getTokenMap()
+                .orElseThrow(() -> new IllegalStateException("Token metadata is not available for this cluster"));
+        
+        String tokenExpression = "token(" + table.getPartitionKey().stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", ")) + ")";
+        String selectClause = selectColumns(table).stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", "));
+        String query = "SELECT " + selectClause + " FROM " + table.getKeyspace().asCql(true) + "."
+            + table.getName().asCql(true) + " WHERE " + tokenExpression + " > ? LIMIT ?";
+        
+        return preparedStatementCache.prepareAsync(clusterId, session, null, query)
+                .thenCompose(prepared -> round(session, tokenMap, table, prepared, sampleSize,
+                                               new LinkedHashMap<>(), 1));
+    }
+    
+    /**
+     * Columns returned by sample(), in the order they appear in each row.
+     */
+    public List<ColumnMetadata> selectColumns(TableMetadata table) {
+        return new ArrayList<>(table.getColumns().values());
+    }
+    
+    private CompletableFuture<List<Row>> round(CqlSession session, TokenMap tokenMap, TableMetadata table,
+                                               PreparedStatement prepared, int sampleSize,
+                                               Map<List<ByteBuffer>, Row> sample, int round) {
+        int missing = sampleSize - sample.size();
+        int slices = Math.min(MAX_SLICES_PER_ROUND,
+                              Math.max(1, (int) Math.ceil(missing * OVERSAMPLE / ROWS_PER_SLICE)));
+        
+        List<CompletableFuture<AsyncResultSet>> futures = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            Token start = tokenMap.newToken(randomKey());
+            futures.add(session.executeAsync(prepared.bind()
+                            .setToken(0, start)
+                            .setInt(1, ROWS_PER_SLICE)
+                            .setRoutingKeyspace(table.getKeyspace())
+                            .setRoutingToken(start)
+                            .setPageSize(ROWS_PER_SLICE)
+                            .setTimeout(SLICE_TIMEOUT)
+                            .setIdempotent(true))
+                    .toCompletableFuture());
+        }
+        
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenCompose(ignored -> {
+            int before = sample.size();
+            for (CompletableFuture<AsyncResultSet> future : futures) {
+                for (Row row : future.join().currentPage()) {
+                    // Slices can overlap on small tables - keep each row once
+                    sample.putIfAbsent(primaryKey(row, table), row);
+                }
+            }
+            
+            // Stop when the sample is full, or when a round found nothing new (the table is smaller)
+            if (sample.size() >= sampleSize || round >= MAX_ROUNDS || sample.size() == before) {
+                List<Row> rows = new ArrayList<>(sample.values());
+                Collections.shuffle(rows, ThreadLocalRandom.current());
+                return CompletableFuture.completedFuture(rows.subList(0, Math.min(rows.size(), sampleSize)));
+            }
+            return round(session, tokenMap, table, prepared, sampleSize, sample, round + 1);
+        });
+    }
+    
+    private ByteBuffer randomKey() {
+        byte[] bytes = new byte[16];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+    
+    private List<ByteBuffer> primaryKey(Row row, TableMetadata table) {
+        List<ByteBuffer> key = new ArrayList<>();
+        for (ColumnMetadata column : table.getPrimaryKey()) {
+            key.add(row.getBytesUnsafe(column.getName()));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,268 @@
+package com.cassandra.browser.service;
+
+import com.cassandra.browser.model.response.TableStatisticsResponse;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates table size without scanning it. system.size_estimates is node-local - each node
+ * only reports the ranges it owns - so the query is sent to every live node and the results
+ * are merged. Results are cached per table for a configurable TTL.
+ */
+@Service
+public class TableStatisticsService {
+    
+    private static final String SIZE_ESTIMATES_QUERY =
+        "SELECT range_start, range_end, partitions_count, mean_partition_size "
+        + "FROM system.size_estimates WHERE keyspace_name = ? AND table_name = ?";
+    
+    // A range is an outlier when it is this many times above the median
+    private static final double OUTLIER_FACTOR = 3.0;
+    private static final int MIN_RANGES_FOR_OUTLIERS = 4;
+    private static final int MAX_OUTLIERS = 50;
+    
+    private static final BigInteger MURMUR3_RING = BigInteger.ONE.shiftLeft(64);
+    private static final BigInteger RANDOM_RING = BigInteger.ONE.shiftLeft(127);
+    
+    @Autowired
+    private ConnectionManager connectionManager;
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @Value("${cassandra.table-statistics.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    private final Map<String, CachedStatistics> cache = new ConcurrentHashMap<>();
+    
+    private static class CachedStatistics {
+        private final CompletableFuture<TableStatisticsResponse> statistics;
+        private final long expiresAt;
+        
+        CachedStatistics(CompletableFuture<TableStatisticsResponse> statistics, long expiresAt) {
+            this.statistics = statistics;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    private static class RangeRow {
+        private final String start;
+        private final String end;
+        private final String node;
+        private final long partitions;
+        private final long meanSize;
+        
+        RangeRow(String start, String end, String node, long partitions, long meanSize) {
+            this.start = start;
+            this.end = end;
+            this.node = node;
+            this.partitions = partitions;
+            this.meanSize = meanSize;
+        }
+    }
+    
+    public CompletableFuture<TableStatisticsResponse> getStatistics(String clusterId, String keyspaceName,
+                                                                    String tableName, boolean refresh) {
+        CqlSession session = connectionManager.getSession(clusterId);
+        String key = clusterId + "|" + keyspaceName + "." + tableName;
+        long now = System.currentTimeMillis();
+        
+        CachedStatistics cached = cache.get(key);
+        if (!refresh && cached != null && cached.expiresAt > now) {
+            return cached.statistics;
+        }
+        
+        purgeExpired(now);
+        CompletableFuture<TableStatisticsResponse> statistics = load(clusterId, session, keyspaceName, tableName);
+        CachedStatistics entry = new CachedStatistics(statistics, now + Duration.ofSeconds(ttlSeconds).toMillis());
+        cache.put(key, entry);
+        // Failures are not cached - the next request tries again
+        statistics.whenComplete((result, error) -> {
+            if (error != null) {
+                cache.remove(key, entry);
+            }
+        });
+        return statistics;
+    }
+    
+    private CompletableFuture<TableStatisticsResponse> load(String clusterId, CqlSession session,
+                                                            String keyspaceName, String tableName) {
+        List<Node> nodes = new ArrayList<>();
+        for (Node node : session.getMetadata().getNodes().values()) {
+            if (node.getState() == NodeState.UP) {
+                nodes.add(node);
+            }
+        }
+        BigInteger ringSize = ringSize(session);
+        
+        return preparedStatementCache.prepareAsync(clusterId, session, null, SIZE_ESTIMATES_QUERY)
+                .thenCompose(prepared -> {
+                    List<CompletableFuture<List<RangeRow>>> perNode = new ArrayList<>();
+                    for (Node node : nodes) {
+                        perNode.add(queryNode(session, prepared, node, keyspaceName, tableName));
+                    }
+                    return CompletableFuture.allOf(perNode.toArray(new CompletableFuture<?>[0]))
+                            .thenApply(ignored -> aggregate(keyspaceName, tableName, perNode, ringSize));
+                });
+    }
+    
+    private CompletableFuture<List<RangeRow>> queryNode(CqlSession session, PreparedStatement prepared,
+                                                        Node node, String keyspaceName, String tableName) {
+        String address = node.getEndPoint().toString();
+        // setNode pins the request to this node - size_estimates differs on every node
+        return session.executeAsync(prepared.bind(keyspaceName, tableName)
+                        .setNode(node)
+                        .setPageSize(5000)
+                        .setIdempotent(true))
+                .toCompletableFuture()
+                .thenCompose(resultSet -> collect(resultSet, address, new ArrayList<>()))
+                // A node that does not answer is reported as failed instead of failing the whole request
+                .exceptionally(e -> null);
+    }
+    
+    private CompletableFuture<List<RangeRow>> collect(AsyncResultSet resultSet, String address,
+                                                      List<RangeRow> rows) {
+        for (Row row : resultSet.currentPage()) {
+            rows.add(new RangeRow(row.getString("range_start"), row.getString("range_end"), address,
+                                  row.getLong("partitions_count"), row.getLong("mean_partition_size")));
+        }
+        if (resultSet.hasMorePages()) {
+            return resultSet.fetchNextPage().toCompletableFuture()
+                    .thenCompose(next -> collect(next, address, rows));
+        }
+        return CompletableFuture.completedFuture(rows);
+    }
+    
+    private TableStatisticsResponse aggregate(String keyspaceName, String tableName,
+                                              List<CompletableFuture<List<RangeRow>>> perNode,
+                                              BigInteger ringSize) {
+        // Each range is reported by the node that owns it; keep one row per range
+        Map<String, RangeRow> ranges = new LinkedHashMap<>();
+        int nodesFailed = 0;
+        for (CompletableFuture<List<RangeRow>> future : perNode) {
+            List<RangeRow> rows = future.join();
+            if (rows == null) {
+                nodesFailed++;
+                continue;
+            }
+            for (RangeRow row : rows) {
+                ranges.putIfAbsent(row.start + ":" + row.end, row);
+            }
+        }
+        
+        long partitions = 0;
+        double totalBytes = 0;
+        for (RangeRow range : ranges.values()) {
+            partitions += range.partitions;
+            totalBytes += (double) range.partitions * range.meanSize;
+        }
+        long meanPartitionSize = partitions > 0 ? Math.round(totalBytes / partitions) : 0;
+        
+        TableStatisticsResponse response = new TableStatisticsResponse();
+        response.setKeyspace(keyspaceName);
+        response.setTable(tableName);
+        response.setEstimatedPartitions(partitions);
+        response.setMeanPartitionSize(meanPartitionSize);
+        response.setEstimatedSizeBytes(Math.round(totalBytes));
+        response.setRangeCount(ranges.size());
+        response.setNodesQueried(perNode.size());
+        response.setNodesFailed(nodesFailed);
+        response.setOutliers(findOutliers(new ArrayList<>(ranges.values()), meanPartitionSize, ringSize));
+        response.setComputedAt(System.currentTimeMillis());
+        return response;
+    }
+    
+    /**
+     * Flags ranges that hold far more data per token than the median range (hot or
+     * unbalanced ranges), and ranges whose partitions are far larger than the table mean.
+     */
+    private List<TableStatisticsResponse.RangeEstimate> findOutliers(List<RangeRow> ranges,
+                                                                     long meanPartitionSize,
+                                                                     BigInteger ringSize) {
+        List<TableStatisticsResponse.RangeEstimate> outliers = new ArrayList<>();
+        if (ranges.size() < MIN_RANGES_FOR_OUTLIERS) {
+            return outliers;
+        }
+        
+        // Vnode ranges differ in width, so compare bytes per token rather than bytes per range
+        double[] densities = new double[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            RangeRow range = ranges.get(i);
+            densities[i] = (double) range.partitions * range.meanSize / width(range, ringSize);
+        }
+        double[] sorted = densities.clone();
+        Arrays.sort(sorted);
+        double medianDensity = sorted[sorted.length / 2];
+        
+        Map<RangeRow, String> reasons = new LinkedHashMap<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            RangeRow range = ranges.get(i);
+            if (medianDensity > 0 && densities[i] > medianDensity * OUTLIER_FACTOR) {
+                reasons.put(range, "partition-density");
+            } else if (meanPartitionSize > 0 && range.meanSize > meanPartitionSize * OUTLIER_FACTOR) {
+                reasons.put(range, "large-partitions");
+            }
+        }
+        
+        // Largest ranges first
+        List<RangeRow> flagged = new ArrayList<>(reasons.keySet());
+        
+        flagged.sort(Comparator.comparingDouble((RangeRow range) -> (double) range.partitions * range.meanSize)
+                .reversed());
+        for (RangeRow range : flagged.subList(0, Math.min(flagged.size(), MAX_OUTLIERS))) {
+            outliers.add(new TableStatisticsResponse.RangeEstimate(
+                range.start, range.end, range.node, range.partitions, range.meanSize, reasons.get(range)));
+        }
+        return outliers;
+    }
+    
+    private double width(RangeRow range, BigInteger ringSize) {
+        if (ringSize == null) {
+            return 1;
+        }
+        try {
+            BigInteger width = new BigInteger(range.end).subtract(new BigInteger(range.start)).mod(ringSize);
+            // start == end covers the whole ring
+            return width.signum() == 0 ? ringSize.doubleValue() : width.doubleValue();
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+    
+    // Ring size of numeric partitioners; null when token widths cannot be compared
+    private BigInteger ringSize(CqlSession session) {
+        String partitioner = session.getMetadata().getTokenMap()
+                .map(TokenMap::getPartitionerName)
+                .orElse("");
+        if (partitioner.endsWith("Murmur3Partitioner")) {
+            return MURMUR3_RING;
+        }
+        if (partitioner.endsWith("RandomPartitioner")) {
+            return RANDOM_RING;
+        }
+        return null;
+    }
+    
+    private void purgeExpired(long now) {
+        cache.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now);
+    }
+}
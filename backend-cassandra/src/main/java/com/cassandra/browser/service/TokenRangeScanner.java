@@ -0,0 +1,267 @@
+package com.cassandra.browser.service;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the token ring into slices and reads them in parallel. Every slice is
+ * queried with token bounds and routed to one of its replicas, so full-table reads
+ * never go through a single coordinator-wide scan.
+ */
+@Service
+public class TokenRangeScanner {
+    
+    private static final int DEFAULT_CONCURRENCY = 8;
+    private static final int MAX_CONCURRENCY = 64;
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final Duration RANGE_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    
+    @Autowired
+    private PreparedStatementCache preparedStatementCache;
+    
+    @FunctionalInterface
+    public interface RangeTask {
+        /**
+         * Processes one slice and returns the number of rows read. Implementations
+         * should stop early when stopped returns true.
+         */
+        long run(ScanRange range, BooleanSupplier stopped) throws Exception;
+    }
+    
+    @FunctionalInterface
+    public interface MergingRangeTask<T> {
+        /**
+         * Processes one slice into a result of its own and returns the number of rows
+         * read. Implementations should stop early when stopped returns true.
+         */
+        long run(ScanRange range, BooleanSupplier stopped, T result) throws Exception;
+    }
+    
+    /**
+     * Prepared statements for reading one slice, with and without an upper token bound.
+     */
+    public static class RangeStatements {
+        private final PreparedStatement closed;
+        private final PreparedStatement openEnded;
+        private final CqlIdentifier keyspace;
+        
+        RangeStatements(PreparedStatement closed, PreparedStatement openEnded, CqlIdentifier keyspace) {
+            this.closed = closed;
+            this.openEnded = openEnded;
+            this.keyspace = keyspace;
+        }
+    }
+    
+    public TableMetadata getTableMetadata(CqlSession session, String keyspaceName, String tableName) {
+        return session.getMetadata()
+                .getKeyspace(CqlIdentifier.fromInternal(keyspaceName))
+                .flatMap(keyspace -> keyspace.getTable(CqlIdentifier.fromInternal(tableName)))
+                .orElseThrow(() -> new IllegalArgumentException(
+                    "Table not found: " + keyspaceName + "." + tableName));
+    }
+    
+    public int resolveConcurrency(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_CONCURRENCY;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        return Math.min(requested, MAX_CONCURRENCY);
+    }
+    
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return requested;
+    }
+    
+    /**
+     * Splits the ring into at least minRanges slices. Each token range of the cluster is
+     * split evenly and wrapped ranges are unwrapped, so every slice maps to a simple
+     * token(...) > ? AND token(...) <= ? restriction.
+     */
+    public List<ScanRange> splitRing(CqlSession session, int minRanges) {
+        TokenMap tokenMap = session.getMetadata().getTokenMap()
+                .orElseThrow(() -> new IllegalStateException("Token metadata is not available for this cluster"));
+        
+        List<TokenRange> ranges = new ArrayList<>(tokenMap.getTokenRanges());
+        Collections.sort(ranges);
+        
+        // A single-token cluster owns the full ring in one range - it must be split to unwrap
+        int splits = Math.max(ranges.size() == 1 ? 2 : 1, (minRanges + ranges.size() - 1) / ranges.size());
+        
+        List<ScanRange> result = new ArrayList<>();
+        for (TokenRange range : ranges) {
+            // All tokens of a range are owned by the replicas of its end token
+            Token routingToken = range.getEnd();
+            List<TokenRange> splitRanges = splits > 1 ? range.splitEvenly(splits) : List.of(range);
+            for (TokenRange split : splitRanges) {
+                for (TokenRange piece : split.unwrap()) {
+                    if (piece.isEmpty()) {
+                        continue;
+                    }
+                    // After unwrapping, start >= end only when the slice ends at the minimum token
+                    boolean openEnded = piece.getStart().compareTo(piece.getEnd()) >= 0;
+                    result.add(new ScanRange(result.size(), piece.getStart(), piece.getEnd(),
+                                             openEnded, routingToken));
+                }
+            }
+        }
+        return result;
+    }
+    
+    public RangeStatements prepare(String clusterId, CqlSession session, TableMetadata table,
+                                   String selectClause) {
+        String tokenExpression = "token(" + table.getPartitionKey().stream()
+                .map(column -> column.getName().asCql(true))
+                .collect(Collectors.joining(", ")) + ")";
+        String from = table.getKeyspace().asCql(true) + "." + table.getName().asCql(true);
+        String select = "SELECT " + selectClause + " FROM " + from + " WHERE " + tokenExpression + " > ?";
+        
+        PreparedStatement openEnded = preparedStatementCache.prepare(clusterId, session, null, select);
+        PreparedStatement closed = preparedStatementCache.prepare(clusterId, session, null,
+            select + " AND " + tokenExpression + " <= ?");
+        return new RangeStatements(closed, openEnded, table.getKeyspace());
+    }
+    
+    public BoundStatement bind(RangeStatements statements, ScanRange range, int pageSize) {
+        BoundStatement statement = range.isOpenEnded()
+                ? statements.openEnded.bind().setToken(0, range.getStart())
+                : statements.closed.bind().setToken(0, range.getStart()).setToken(1, range.getEnd());
+        return statement
+                .setRoutingKeyspace(statements.keyspace)
+                .setRoutingToken(range.getRoutingToken())
+                .setPageSize(pageSize)
+                .setTimeout(RANGE_REQUEST_TIMEOUT)
+                .setIdempotent(true);
+    }
+    
+    /**
+     * Reads every row of the statement. The next page is requested before the current
+     * one is handed to the consumer, so the consumer never waits on a full round trip.
+     */
+    public long scan(CqlSession session, BoundStatement statement, BooleanSupplier stopped,
+                     Consumer<Row> consumer) {
+        long rows = 0;
+        AsyncResultSet page = session.executeAsync(statement).toCompletableFuture().join();
+        while (true) {
+            CompletableFuture<AsyncResultSet> nextPage = page.hasMorePages()
+                    ? page.fetchNextPage().toCompletableFuture()
+                    : null;
+            
+            for (Row row : page.currentPage()) {
+                consumer.accept(row);
+                rows++;
+            }
+            
+            if (nextPage == null) {
+                return rows;
+            }
+            if (stopped.getAsBoolean()) {
+                nextPage.cancel(false);
+                return rows;
+            }
+            page = nextPage.join();
+        }
+    }
+    
+    /**
+     * Runs the task for every slice the job has not completed yet, with at most
+     * concurrency slices in flight. The first failure stops the remaining slices.
+     */
+    public void runParallel(Job job, List<ScanRange> ranges, int concurrency, RangeTask task) {
+        runParallel(job, ranges, concurrency, () -> null, (range, stopped, result) -> task.run(range, stopped),
+                    result -> { });
+    }
+    
+    /**
+     * Like runParallel, but every slice fills a fresh result that is merged when the slice
+     * completes. Merges run under the job's lock, exactly once per slice, so totals kept
+     * across resumes never count a slice twice; read them under the same lock.
+     */
+    public <T> void runParallel(Job job, List<ScanRange> ranges, int concurrency, Supplier<T> newResult,
+                                MergingRangeTask<T> task, Consumer<T> merge) {
+        job.setTotalRanges(ranges.size());
+        
+        AtomicBoolean failed = new AtomicBoolean();
+        BooleanSupplier stopped = () -> failed.get() || job.isCancelRequested();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(concurrency, MAX_CONCURRENCY));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ScanRange range : ranges) {
+                if (job.isRangeCompleted(range.getIndex())) {
+                    continue;
+                }
+                futures.add(pool.submit(() -> {
+                    if (stopped.getAsBoolean()) {
+                        return null;
+                    }
+                    T result = newResult.get();
+                    long rows = task.run(range, stopped, result);
+                    // A slice interrupted by a stop is read again on resume
+                    if (!stopped.getAsBoolean()) {
+                        synchronized (job) {
+                            // A task left over from an earlier failed run may finish the same slice
+                            if (!job.isRangeCompleted(range.getIndex())) {
+                                merge.accept(result);
+                                job.markRangeCompleted(range.getIndex(), rows);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed.set(true);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof CompletionException && cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                    throw new IllegalStateException("Token range scan failed: " + cause.getMessage(), cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            failed.set(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Token range scan interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.cassandra.browser.util;
+
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders serialized CQL values the way Cassandra orders them on disk, so rows read in
+ * token and clustering order from two clusters can be merged without decoding them.
+ * Only types that may appear in a primary key and whose order is simple are covered;
+ * for the others forType returns null and callers fall back to a keyed comparison.
+ */
+public class CqlOrdering {
+    
+    private static final Comparator<ByteBuffer> UNSIGNED = CqlOrdering::compareUnsigned;
+    private static final Comparator<ByteBuffer> SIGNED = CqlOrdering::compareSigned;
+    
+    private CqlOrdering() {
+    }
+    
+    /**
+     * Comparator for non-null values of the type, or null if the type is not supported.
+     */
+    public static Comparator<ByteBuffer> forType(DataType type) {
+        if (type.equals(DataTypes.TEXT) || type.equals(DataTypes.ASCII) || type.equals(DataTypes.BLOB)
+                || type.equals(DataTypes.INET) || type.equals(DataTypes.BOOLEAN) || type.equals(DataTypes.DATE)) {
+            // DATE is stored with its epoch at 2^31, so it orders as an unsigned int
+            return UNSIGNED;
+        }
+        if (type.equals(DataTypes.TINYINT) || type.equals(DataTypes.SMALLINT) || type.equals(DataTypes.INT)
+                || type.equals(DataTypes.BIGINT) || type.equals(DataTypes.TIMESTAMP) || type.equals(DataTypes.TIME)
+                || type.equals(DataTypes.COUNTER)) {
+            return SIGNED;
+        }
+        if (type.equals(DataTypes.FLOAT)) {
+            return (left, right) -> Float.compare(left.getFloat(left.position()), right.getFloat(right.position()));
+        }
+        if (type.equals(DataTypes.DOUBLE)) {
+            return (left, right) -> Double.compare(left.getDouble(left.position()),
+                                                   right.getDouble(right.position()));
+        }
+        if (type.equals(DataTypes.VARINT)) {
+            return Comparator.comparing(CqlOrdering::toBigInteger);
+        }
+        if (type.equals(DataTypes.DECIMAL)) {
+            return Comparator.comparing(CqlOrdering::toBigDecimal);
+        }
+        if (type.equals(DataTypes.TIMEUUID)) {
+            return CqlOrdering::compareTimeUuid;
+        }
+        if (type.equals(DataTypes.UUID)) {
+            return CqlOrdering::compareUuid;
+        }
+        return null;
+    }
+    
+    /**
+     * Orders partition keys within one token the way Cassandra does: by the serialized key,
+     * which for composite keys is every component prefixed by its length and followed by 0.
+     */
+    public static int comparePartitionKeys(List<ByteBuffer> left, List<ByteBuffer> right) {
+        if (left.size() == 1) {
+            return compareUnsigned(left.get(0), right.get(0));
+        }
+        return compareUnsigned(composite(left), composite(right));
+    }
+    
+    private static ByteBuffer composite(List<ByteBuffer> components) {
+        int size = 0;
+        for (ByteBuffer component : components) {
+            size += 3 + component.remaining();
+        }
+        ByteBuffer composite = ByteBuffer.allocate(size);
+        for (ByteBuffer component : components) {
+            composite.putShort((short) component.remaining()).put(component.duplicate()).put((byte) 0);
+        }
+        composite.flip();
+        return composite;
+    }
+    
+    private static int compareUnsigned(ByteBuffer left, ByteBuffer right) {
+        int length = Math.min(left.remaining(), right.remaining());
+        for (int i = 0; i < length; i++) {
+            int c = Integer.compare(left.get(left.position() + i) & 0xff, right.get(right.position() + i) & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(left.remaining(), right.remaining());
+    }
+    
+    private static int compareSigned(ByteBuffer left, ByteBuffer right) {
+        // Fixed-width two's complement: the first byte carries the sign, the rest order unsigned
+        if (left.remaining() == 0 || right.remaining() == 0) {
+            return Integer.compare(left.remaining(), right.remaining());
+        }
+        int c = Byte.compare(left.get(left.position()), right.get(right.position()));
+        return c != 0 ? c : compareUnsigned(left, right);
+    }
+    
+    private static int compareTimeUuid(ByteBuffer left, ByteBuffer right) {
+        if (left.remaining() != 16 || right.remaining() != 16) {
+            return Integer.compare(left.remaining(), right.remaining());
+        }
+        int c = Long.compare(timestampOrder(left.getLong(left.position())),
+                             timestampOrder(right.getLong(right.position())));
+        if (c != 0) {
+            return c;
+        }
+        // The clock sequence and node compare as signed bytes
+        return Long.compare(left.getLong(left.position() + 8) ^ 0x0080808080808080L,
+                            right.getLong(right.position() + 8) ^ 0x0080808080808080L);
+    }
+    
+    private static int compareUuid(ByteBuffer left, ByteBuffer right) {
+        if (left.remaining() != 16 || right.remaining() != 16) {
+            return Integer.compare(left.remaining(), right.remaining());
+        }
+        long leftMsb = left.getLong(left.position());
+        long rightMsb = right.getLong(right.position());
+        int leftVersion = (int) ((leftMsb >>> 12) & 0xf);
+        int rightVersion = (int) ((rightMsb >>> 12) & 0xf);
+        if (leftVersion != rightVersion) {
+            return Integer.compare(leftVersion, rightVersion);
+        }
+        int c = leftVersion == 1
+                ? Long.compare(timestampOrder(leftMsb), timestampOrder(rightMsb))
+                : Long.compareUnsigned(leftMsb, rightMsb);
+        if (c != 0) {
+            return c;
+        }
+        return Long.compareUnsigned(left.getLong(left.position() + 8), right.getLong(right.position() + 8));
+    }
+    
+    private static long timestampOrder(long msb) {
+        // time_hi_and_version, time_mid, time_low - the version nibble is 1, so the result is positive
+        return (msb << 48) | ((msb << 16) & 0xFFFF00000000L) | (msb >>> 32);
+    }
+    
+    private static BigInteger toBigInteger(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.duplicate().get(bytes);
+        return bytes.length == 0 ? BigInteger.ZERO : new BigInteger(bytes);
+    }
+    
+    private static BigDecimal toBigDecimal(ByteBuffer value) {
+        if (value.remaining() < 4) {
+            return BigDecimal.ZERO;
+        }
+        ByteBuffer duplicate = value.duplicate();
+        int scale = duplicate.getInt();
+        return new BigDecimal(toBigInteger(duplicate), scale);
+    }
+}
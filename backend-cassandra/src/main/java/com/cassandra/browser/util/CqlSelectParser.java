@@ -0,0 +1,454 @@
+package com.cassandra.browser.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Parses CQL SELECT statements far enough to tell how they will be executed: the table,
+ * the WHERE relations (columns, operator and IN list sizes), LIMIT, ALLOW FILTERING and
+ * whether the selection aggregates. Terms are skipped rather than evaluated, so any
+ * literal the server accepts passes through. Anything that is not a single SELECT is
+ * rejected with IllegalArgumentException.
+ */
+public class CqlSelectParser {
+    
+    private static final Set<String> AGGREGATES = Set.of("count", "sum", "avg", "min", "max");
+    // Keywords that end a term inside the WHERE clause
+    private static final Set<String> TERM_BOUNDARIES = Set.of("and", "limit", "allow", "order", "group", "per");
+    
+    public static class ParsedSelect {
+        private final String keyspace;
+        private final String table;
+        private final List<Relation> relations;
+        private final Integer limit;
+        private final boolean limitMarker;
+        private final boolean allowFiltering;
+        private final boolean aggregate;
+        private final boolean distinct;
+        
+        ParsedSelect(String keyspace, String table, List<Relation> relations, Integer limit, boolean limitMarker,
+                     boolean allowFiltering, boolean aggregate, boolean distinct) {
+            this.keyspace = keyspace;
+            this.table = table;
+            this.relations = List.copyOf(relations);
+            this.limit = limit;
+            this.limitMarker = limitMarker;
+            this.allowFiltering = allowFiltering;
+            this.aggregate = aggregate;
+            this.distinct = distinct;
+        }
+        
+        public String getKeyspace() { return keyspace; }
+        public String getTable() { return table; }
+        public List<Relation> getRelations() { return relations; }
+        public Integer getLimit() { return limit; } // null when absent or a bind marker
+        public boolean hasLimit() { return limit != null || limitMarker; }
+        public boolean isAllowFiltering() { return allowFiltering; }
+        public boolean isAggregate() { return aggregate; }
+        public boolean isDistinct() { return distinct; }
+    }
+    
+    public static class Relation {
+        private final List<String> columns;
+        private final boolean token;
+        private final String operator;
+        private final int inValues;
+        
+        Relation(List<String> columns, boolean token, String operator, int inValues) {
+            this.columns = List.copyOf(columns);
+            this.token = token;
+            this.operator = operator;
+            this.inValues = inValues;
+        }
+        
+        public List<String> getColumns() { return columns; } // internal (case-sensitive) names
+        public boolean isToken() { return token; }
+        public String getOperator() { return operator; } // lower case, e.g. "=", "in", "contains key"
+        public int getInValues() { return inValues; } // size of a literal IN list, -1 for IN ?
+    }
+    
+    private enum Kind { IDENTIFIER, QUOTED_IDENTIFIER, STRING, NUMBER, SYMBOL, EOF }
+    
+    private static class Token {
+        private final Kind kind;
+        private final String text;
+        
+        Token(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+    
+    private final List<Token> tokens;
+    private int position;
+    
+    private CqlSelectParser(String query) {
+        this.tokens = tokenize(query);
+    }
+    
+    public static ParsedSelect parse(String query) {
+        return new CqlSelectParser(query).parseSelect();
+    }
+    
+    private ParsedSelect parseSelect() {
+        if (!acceptKeyword("select")) {
+            throw new IllegalArgumentException("Only SELECT queries are allowed");
+        }
+        acceptKeyword("json");
+        boolean distinct = acceptKeyword("distinct");
+        
+        // Selectors - only aggregates matter, everything up to FROM is skipped
+        boolean aggregate = false;
+        int depth = 0;
+        while (depth > 0 || !isKeyword(peek(), "from")) {
+            Token token = next();
+            if (token.kind == Kind.EOF) {
+                throw new IllegalArgumentException("SELECT is missing FROM");
+            }
+            if (token.kind == Kind.IDENTIFIER && AGGREGATES.contains(lower(token)) && isSymbol(peek(), "(")) {
+                aggregate = true;
+            }
+            depth += depthChange(token);
+        }
+        next(); // FROM
+        
+        String keyspace = null;
+        String table = identifier();
+        if (acceptSymbol(".")) {
+            keyspace = table;
+            table = identifier();
+        }
+        
+        List<Relation> relations = new ArrayList<>();
+        if (acceptKeyword("where")) {
+            do {
+                relations.add(relation());
+            } while (acceptKeyword("and"));
+        }
+        
+        Integer limit = null;
+        boolean limitMarker = false;
+        boolean allowFiltering = false;
+        while (true) {
+            if (acceptKeyword("group") || acceptKeyword("order")) {
+                expectKeyword("by");
+                skipClause();
+            } else if (acceptKeyword("per")) {
+                expectKeyword("partition");
+                expectKeyword("limit");
+                next();
+            } else if (acceptKeyword("limit")) {
+                Token value = next();
+                if (value.kind == Kind.NUMBER) {
+                    limit = parseLimit(value.text);
+                } else if (isSymbol(value, "?") || isSymbol(value, ":")) {
+                    if (isSymbol(value, ":")) {
+                        next();
+                    }
+                    limitMarker = true;
+                } else {
+                    throw new IllegalArgumentException("Invalid LIMIT: " + value.text);
+                }
+            } else if (acceptKeyword("allow")) {
+                expectKeyword("filtering");
+                allowFiltering = true;
+            } else {
+                break;
+            }
+        }
+        acceptSymbol(";");
+        if (peek().kind != Kind.EOF) {
+            throw new IllegalArgumentException("Unexpected input after the SELECT statement: " + peek().text);
+        }
+        return new ParsedSelect(keyspace, table, relations, limit, limitMarker, allowFiltering, aggregate, distinct);
+    }
+    
+    private Relation relation() {
+        List<String> columns = new ArrayList<>();
+        boolean token = false;
+        if (isKeyword(peek(), "token") && isSymbol(peekAhead(1), "(")) {
+            next();
+            token = true;
+            columns.addAll(identifierList());
+        } else if (isSymbol(peek(), "(")) {
+            columns.addAll(identifierList());
+        } else {
+            columns.add(identifier());
+            if (isSymbol(peek(), "[")) {
+                skipBracketed(); // map element, e.g. m['key'] = ?
+            }
+        }
+        
+        String operator = operator();
+        int inValues = 0;
+        if ("in".equals(operator)) {
+            inValues = isSymbol(peek(), "(") ? countListElements() : -1;
+            if (inValues == -1) {
+                skipTerm();
+            }
+        } else if (!"is not null".equals(operator)) {
+            skipTerm();
+        }
+        return new Relation(columns, token, operator, inValues);
+    }
+    
+    private String operator() {
+        Token token = next();
+        if (token.kind == Kind.SYMBOL && Set.of("=", "<", ">", "<=", ">=", "!=").contains(token.text)) {
+            return token.text;
+        }
+        if (isKeyword(token, "in") || isKeyword(token, "like")) {
+            return lower(token);
+        }
+        if (isKeyword(token, "contains")) {
+            return acceptKeyword("key") ? "contains key" : "contains";
+        }
+        if (isKeyword(token, "is")) {
+            expectKeyword("not");
+            expectKeyword("null");
+            return "is not null";
+        }
+        throw new IllegalArgumentException("Unsupported operator in WHERE clause: " + token.text);
+    }
+    
+    private List<String> identifierList() {
+        expectSymbol("(");
+        List<String> names = new ArrayList<>();
+        do {
+            names.add(identifier());
+        } while (acceptSymbol(","));
+        expectSymbol(")");
+        return names;
+    }
+    
+    private int countListElements() {
+        expectSymbol("(");
+        if (acceptSymbol(")")) {
+            return 0;
+        }
+        int count = 1;
+        int depth = 0;
+        while (true) {
+            Token token = next();
+            if (token.kind == Kind.EOF) {
+                throw new IllegalArgumentException("Unterminated IN list");
+            }
+            if (depth == 0 && isSymbol(token, ")")) {
+                return count;
+            }
+            if (depth == 0 && isSymbol(token, ",")) {
+                count++;
+            }
+            depth += depthChange(token);
+        }
+    }
+    
+    private void skipTerm() {
+        int depth = 0;
+        boolean consumed = false;
+        while (true) {
+            Token token = peek();
+            if (token.kind == Kind.EOF || (depth == 0 && consumed
+                    && (isSymbol(token, ";") || (token.kind == Kind.IDENTIFIER && TERM_BOUNDARIES.contains(lower(token)))))) {
+                break;
+            }
+            next();
+            consumed = true;
+            depth += depthChange(token);
+        }
+        if (!consumed) {
+            throw new IllegalArgumentException("Missing value in WHERE clause");
+        }
+    }
+    
+    private void skipClause() {
+        int depth = 0;
+        while (true) {
+            Token token = peek();
+            if (token.kind == Kind.EOF || (depth == 0 && (isSymbol(token, ";") || isKeyword(token, "limit")
+                    || isKeyword(token, "allow") || isKeyword(token, "per")
+                    || isKeyword(token, "order") || isKeyword(token, "group")))) {
+                return;
+            }
+            next();
+            depth += depthChange(token);
+        }
+    }
+    
+    private void skipBracketed() {
+        int depth = 0;
+        do {
+            Token token = next();
+            if (token.kind == Kind.EOF) {
+                throw new IllegalArgumentException("Unterminated [");
+            }
+            depth += depthChange(token);
+        } while (depth > 0);
+    }
+    
+    private String identifier() {
+        Token token = next();
+        if (token.kind == Kind.IDENTIFIER) {
+            // Unquoted identifiers are case-insensitive and stored in lower case
+            return lower(token);
+        }
+        if (token.kind == Kind.QUOTED_IDENTIFIER) {
+            return token.text;
+        }
+        throw new IllegalArgumentException("Expected an identifier but found: " + token.text);
+    }
+    
+    private Integer parseLimit(String text) {
+        try {
+            int limit = Integer.parseInt(text);
+            if (limit < 1) {
+                throw new IllegalArgumentException("LIMIT must be at least 1");
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid LIMIT: " + text);
+        }
+    }
+    
+    private int depthChange(Token token) {
+        if (token.kind != Kind.SYMBOL) {
+            return 0;
+        }
+        switch (token.text) {
+            case "(": case "[": case "{": return 1;
+            case ")": case "]": case "}": return -1;
+            default: return 0;
+        }
+    }
+    
+    private Token peek() {
+        return peekAhead(0);
+    }
+    
+    private Token peekAhead(int offset) {
+        return tokens.get(Math.min(position + offset, tokens.size() - 1));
+    }
+    
+    private Token next() {
+        Token token = peek();
+        if (token.kind != Kind.EOF) {
+            position++;
+        }
+        return token;
+    }
+    
+    private boolean acceptKeyword(String keyword) {
+        if (isKeyword(peek(), keyword)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+    
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) {
+            throw new IllegalArgumentException("Expected " + keyword.toUpperCase(Locale.ROOT) + " but found: " + peek().text);
+        }
+    }
+    
+    private boolean acceptSymbol(String symbol) {
+        if (isSymbol(peek(), symbol)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+    
+    private void expectSymbol(String symbol) {
+        if (!acceptSymbol(symbol)) {
+            throw new IllegalArgumentException("Expected '" + symbol + "' but found: " + peek().text);
+        }
+    }
+    
+    private static boolean isKeyword(Token token, String keyword) {
+        return token.kind == Kind.IDENTIFIER && token.text.equalsIgnoreCase(keyword);
+    }
+    
+    private static boolean isSymbol(Token token, String symbol) {
+        return token.kind == Kind.SYMBOL && token.text.equals(symbol);
+    }
+    
+    private static String lower(Token token) {
+        return token.text.toLowerCase(Locale.ROOT);
+    }
+    
+    private static List<Token> tokenize(String query) {
+        List<Token> tokens = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if ((c == '-' && next(query, i) == '-') || (c == '/' && next(query, i) == '/')) {
+                while (i < length && query.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && next(query, i) == '*') {
+                int end = query.indexOf("*/", i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated comment");
+                }
+                i = end + 2;
+            } else if (c == '\'' || c == '"') {
+                // Quotes are escaped by doubling them
+                StringBuilder text = new StringBuilder();
+                int j = i + 1;
+                while (true) {
+                    if (j >= length) {
+                        throw new IllegalArgumentException(c == '\'' ? "Unterminated string" : "Unterminated quoted identifier");
+                    }
+                    char d = query.charAt(j);
+                    if (d == c) {
+                        if (next(query, j) == c) {
+                            text.append(c);
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    text.append(d);
+                    j++;
+                }
+                tokens.add(new Token(c == '\'' ? Kind.STRING : Kind.QUOTED_IDENTIFIER, text.toString()));
+                i = j + 1;
+            } else if (c == '$' && next(query, i) == '$') {
+                int end = query.indexOf("$$", i + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+                tokens.add(new Token(Kind.STRING, query.substring(i + 2, end)));
+                i = end + 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                // Identifiers, numbers, UUIDs and blobs - literal values only need to be skipped
+                int j = i;
+                while (j < length && (Character.isLetterOrDigit(query.charAt(j)) || query.charAt(j) == '_'
+                        || (query.charAt(j) == '.' && Character.isDigit(c)))) {
+                    j++;
+                }
+                String text = query.substring(i, j);
+                tokens.add(new Token(Character.isDigit(c) ? Kind.NUMBER : Kind.IDENTIFIER, text));
+                i = j;
+            } else if ((c == '<' || c == '>' || c == '!') && next(query, i) == '=') {
+                tokens.add(new Token(Kind.SYMBOL, query.substring(i, i + 2)));
+                i += 2;
+            } else {
+                tokens.add(new Token(Kind.SYMBOL, String.valueOf(c)));
+                i++;
+            }
+        }
+        tokens.add(new Token(Kind.EOF, "end of query"));
+        return tokens;
+    }
+    
+    private static char next(String query, int index) {
+        return index + 1 < query.length() ? query.charAt(index + 1) : 0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.cassandra.browser.util;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.MapType;
+import com.datastax.oss.driver.api.core.type.SetType;
+import com.datastax.oss.driver.api.core.type.TupleType;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts values coming from JSON or CSV into the Java type the driver expects for a CQL column,
+ * and formats driver values back into text that convert() accepts.
+ */
+@Component
+public class CqlValueConverter {
+    
+    public Object convert(Object value, DataType type, CodecRegistry codecRegistry) {
+        if (value == null) {
+            return null;
+        }
+        
+        // JSON arrays and objects arrive as lists and maps - convert them element by element
+        if (value instanceof Collection || value instanceof Map) {
+            return convertStructured(value, type, codecRegistry);
+        }
+        
+        String text = value.toString();
+        
+        // Text columns take the raw value - the codec would expect a quoted CQL literal
+        if (DataTypes.TEXT.equals(type) || DataTypes.ASCII.equals(type)) {
+            return text;
+        }
+        
+        if (text.isEmpty()) {
+            return null;
+        }
+        
+        TypeCodec<Object> codec = codecRegistry.codecFor(type);
+        try {
+            // Numbers, booleans, uuids and collections parse from their CQL literal form
+            return codec.parse(text);
+        } catch (RuntimeException e) {
+            // Timestamps, dates, inet etc. are string literals in CQL and need quotes
+            try {
+                return codec.parse("'" + text.replace("'", "''") + "'");
+            } catch (RuntimeException quotedError) {
+                throw new IllegalArgumentException(
+                    "Cannot convert '" + text + "' to " + type.asCql(true, true), e);
+            }
+        }
+    }
+    
+    private Object convertStructured(Object value, DataType type, CodecRegistry codecRegistry) {
+        if (type instanceof ListType && value instanceof Collection) {
+            DataType elementType = ((ListType) type).getElementType();
+            List<Object> list = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                list.add(convert(element, elementType, codecRegistry));
+            }
+            return list;
+        }
+        if (type instanceof SetType && value instanceof Collection) {
+            DataType elementType = ((SetType) type).getElementType();
+            Set<Object> set = new LinkedHashSet<>();
+            for (Object element : (Collection<?>) value) {
+                set.add(convert(element, elementType, codecRegistry));
+            }
+            return set;
+        }
+        if (type instanceof MapType && value instanceof Map) {
+            MapType mapType = (MapType) type;
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(convert(entry.getKey(), mapType.getKeyType(), codecRegistry),
+                        convert(entry.getValue(), mapType.getValueType(), codecRegistry));
+            }
+            return map;
+        }
+        if (type instanceof TupleType && value instanceof List) {
+            TupleType tupleType = (TupleType) type;
+            List<?> components = (List<?>) value;
+            List<DataType> componentTypes = tupleType.getComponentTypes();
+            if (components.size() != componentTypes.size()) {
+                throw new IllegalArgumentException("Expected " + componentTypes.size() + " values for "
+                    + type.asCql(true, true) + ", got " + components.size());
+            }
+            Object[] converted = new Object[components.size()];
+            for (int i = 0; i < converted.length; i++) {
+                converted[i] = convert(components.get(i), componentTypes.get(i), codecRegistry);
+            }
+            return tupleType.newValue(converted);
+        }
+        if (type instanceof UserDefinedType && value instanceof Map) {
+            UserDefinedType udt = (UserDefinedType) type;
+            Map<?, ?> fields = (Map<?, ?>) value;
+            List<CqlIdentifier> fieldNames = udt.getFieldNames();
+            for (Object name : fields.keySet()) {
+                if (!fieldNames.contains(CqlIdentifier.fromInternal(String.valueOf(name)))) {
+                    throw new IllegalArgumentException("Unknown field '" + name + "' for "
+                        + type.asCql(true, true));
+                }
+            }
+            Object[] converted = new Object[fieldNames.size()];
+            for (int i = 0; i < converted.length; i++) {
+                converted[i] = convert(fields.get(fieldNames.get(i).asInternal()), udt.getFieldTypes().get(i),
+                                       codecRegistry);
+            }
+            return udt.newValue(converted);
+        }
+        throw new IllegalArgumentException("Cannot convert " + value + " to " + type.asCql(true, true));
+    }
+    
+    /**
+     * Returns the value in a JSON-friendly form: numbers and booleans stay native, timestamps
+     * become epoch milliseconds and everything else uses the text form from format().
+     */
+    public Object toJsonValue(Object value, DataType type, CodecRegistry codecRegistry) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        }
+        return format(value, type, codecRegistry);
+    }
+    
+    public String format(Object value, DataType type, CodecRegistry codecRegistry) {
+        if (value == null) {
+            return null;
+        }
+        
+        if (DataTypes.TEXT.equals(type) || DataTypes.ASCII.equals(type)) {
+            return value.toString();
+        }
+        
+        String literal = codecRegistry.codecFor(type).format(value);
+        // Unwrap quoted scalar literals (timestamps, dates, inet) so they read like plain values
+        if (literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")) {
+            return literal.substring(1, literal.length() - 1).replace("''", "'");
+        }
+        return literal;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cassandra.browser.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader. Quoted fields may contain commas, quotes ("") and
+ * line breaks. An empty unquoted field reads as null and an empty quoted field as "",
+ * matching what the table export writes.
+ */
+public class CsvReader implements Closeable {
+    
+    private final PushbackReader reader;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    
+    public CsvReader(Reader reader) {
+        this.reader = new PushbackReader(new BufferedReader(reader, 64 * 1024));
+    }
+    
+    /**
+     * Reads the next record, or returns null at the end of the input.
+     */
+    public List<String> readRecord() throws IOException {
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        boolean read = false;
+        
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (inQuotes) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        if (next != -1) {
+                            reader.unread(next);
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n') {
+                lineNumber++;
+                fields.add(value(field, quoted));
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        
+        if (!read) {
+            return null;
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted field on line " + recordLineNumber);
+        }
+        fields.add(value(field, quoted));
+        return fields;
+    }
+    
+    /**
+     * Line on which the last record returned by readRecord started.
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+    
+    private String value(StringBuilder field, boolean quoted) {
+        if (!quoted && field.length() == 0) {
+            return null;
+        }
+        return field.toString();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
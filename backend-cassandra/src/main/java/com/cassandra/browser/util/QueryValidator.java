@@ -1,38 +1,256 @@
 package com.cassandra.browser.util;
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DriverException;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.RelationMetadata;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Guards queries run from the browser. Each query is parsed and its WHERE clause is
+ * checked against the table schema the driver keeps, which tells a single-partition
+ * read from an IN over several partitions, a token-range read or a scan of the whole
+ * cluster. Every class has its own page, row and timeout limits, and cluster-wide
+ * scans are only allowed when they are cheap. Parsed statements are cached per query
+ * text, so the check costs a map lookup for repeated queries.
+ */
 @Component
 public class QueryValidator {
     private static final int MAX_RESULT_SIZE = 1000;
+    private static final int MAX_STREAM_RESULT_SIZE = 1_000_000;
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 500;
+    private static final int MAX_IN_PARTITIONS = 100;
+    private static final int PARSE_CACHE_SIZE = 1000;
+    // Keyspaces with LocalStrategy replication are read from the coordinator only
+    private static final Set<String> LOCAL_KEYSPACES = Set.of("system", "system_schema", "system_views",
+        "system_virtual_schema");
+    
+    public enum QueryClass {
+        SINGLE_PARTITION(Duration.ofSeconds(10), MAX_STREAM_RESULT_SIZE),
+        MULTI_PARTITION_IN(Duration.ofSeconds(15), 100_000),
+        TOKEN_RANGE(Duration.ofSeconds(30), MAX_STREAM_RESULT_SIZE),
+        // Scans stop at LIMIT, which is capped at MAX_RESULT_SIZE
+        FULL_SCAN(Duration.ofSeconds(10), MAX_RESULT_SIZE);
+        
+        private final Duration timeout;
+        private final int maxStreamRows;
+        
+        QueryClass(Duration timeout, int maxStreamRows) {
+            this.timeout = timeout;
+            this.maxStreamRows = maxStreamRows;
+        }
+        
+        public Duration getTimeout() { return timeout; }
+        public int getMaxStreamRows() { return maxStreamRows; }
+    }
     
-    public void validateQuery(String query) {
+    // Parse results (or parse errors) by query text, least recently used evicted first
+    private final Map<String, Object> parseCache = Collections.synchronizedMap(
+        new LinkedHashMap<String, Object>(PARSE_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > PARSE_CACHE_SIZE;
+            }
+        });
+    
+    /**
+     * Validates the query against the table it reads and returns its class, whose limits
+     * the caller applies. keyspaceName is used when the query does not name a keyspace.
+     */
+    public QueryClass validateQuery(CqlSession session, String keyspaceName, String query) {
         if (query == null || query.trim().isEmpty()) {
             throw new IllegalArgumentException("Query cannot be empty");
         }
         
-        String normalized = query.trim().toUpperCase();
+        CqlSelectParser.ParsedSelect select = parse(query.trim());
+        String keyspace = select.getKeyspace() != null ? select.getKeyspace() : keyspaceName;
+        if (keyspace == null || keyspace.isEmpty()) {
+            throw new IllegalArgumentException("No keyspace specified - use keyspace.table in the query");
+        }
+        if (LOCAL_KEYSPACES.contains(keyspace)) {
+            // Includes virtual tables, which no schema table describes - the server checks they exist
+            return QueryClass.SINGLE_PARTITION;
+        }
+        List<String> partitionKey = partitionKey(session, keyspace, select.getTable());
         
-        // Only allow SELECT queries
-        if (!normalized.startsWith("SELECT")) {
-            throw new IllegalArgumentException("Only SELECT queries are allowed");
+        QueryClass queryClass = classify(select, partitionKey);
+        switch (queryClass) {
+            case MULTI_PARTITION_IN:
+                int partitions = inPartitions(select, partitionKey);
+                if (partitions > MAX_IN_PARTITIONS) {
+                    throw new IllegalArgumentException(String.format(
+                        "IN restriction selects %d partitions, at most %d are allowed", partitions, MAX_IN_PARTITIONS));
+                }
+                break;
+            case FULL_SCAN:
+                if (select.isAllowFiltering()) {
+                    throw new IllegalArgumentException("ALLOW FILTERING without a partition key restriction scans the "
+                        + "whole cluster - restrict the partition key or use a table export job");
+                }
+                if (select.isAggregate()) {
+                    throw new IllegalArgumentException("Aggregates without a partition key restriction scan the whole "
+                        + "cluster - restrict the partition key or use the table statistics");
+                }
+                if (!select.hasLimit() || (select.getLimit() != null && select.getLimit() > MAX_RESULT_SIZE)) {
+                    throw new IllegalArgumentException("Queries without a partition key restriction need a LIMIT of at "
+                        + "most " + MAX_RESULT_SIZE + " - use a table export job to read the whole table");
+                }
+                break;
+            default:
+                break;
+        }
+        return queryClass;
+    }
+    
+    private CqlSelectParser.ParsedSelect parse(String query) {
+        Object cached = parseCache.get(query);
+        if (cached == null) {
+            try {
+                cached = CqlSelectParser.parse(query);
+            } catch (IllegalArgumentException e) {
+                cached = e.getMessage();
+            }
+            parseCache.put(query, cached);
+        }
+        if (cached instanceof String) {
+            throw new IllegalArgumentException((String) cached);
+        }
+        return (CqlSelectParser.ParsedSelect) cached;
+    }
+    
+    /**
+     * Partition key columns of the table or materialized view, in key order. The driver
+     * leaves system and DSE keyspaces out of its metadata by default, and its metadata may
+     * lag behind new tables, so misses are read from the schema tables. Without a partition
+     * key every query is classified as a scan, the strictest class.
+     */
+    private List<String> partitionKey(CqlSession session, String keyspace, String tableName) {
+        CqlIdentifier name = CqlIdentifier.fromInternal(tableName);
+        Optional<? extends RelationMetadata> relation = session.getMetadata()
+                .getKeyspace(CqlIdentifier.fromInternal(keyspace))
+                .flatMap(metadata -> metadata.getTable(name)
+                    .<RelationMetadata>map(table -> table)
+                    .or(() -> metadata.getView(name)));
+        if (relation.isPresent()) {
+            return relation.get().getPartitionKey().stream()
+                    .map(column -> column.getName().asInternal())
+                    .toList();
         }
         
-        // Prevent dangerous operations
-        String[] dangerousKeywords = {
-            "DROP", "DELETE", "TRUNCATE", "ALTER", "CREATE", 
-            "INSERT", "UPDATE", "GRANT", "REVOKE"
-        };
+        List<Row> columns;
+        try {
+            columns = partitionKeyColumns(session, "system_schema", keyspace, tableName);
+            if (columns.isEmpty()) {
+                // Virtual tables of other keyspaces (DSE) are only described here
+                columns = partitionKeyColumns(session, "system_virtual_schema", keyspace, tableName);
+            }
+        } catch (DriverException e) {
+            // No system_schema (Cassandra 2.x) - nothing is known about the key
+            return Collections.emptyList();
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Table not found: " + keyspace + "." + tableName);
+        }
+        return columns.stream()
+                .filter(row -> "partition_key".equals(row.getString("kind")))
+                .sorted(Comparator.comparingInt(row -> row.getInt("position")))
+                .map(row -> row.getString("column_name"))
+                .toList();
+    }
+    
+    private List<Row> partitionKeyColumns(CqlSession session, String schemaKeyspace, String keyspace,
+                                          String tableName) {
+        return session.execute(SimpleStatement.newInstance(
+            "SELECT column_name, kind, position FROM " + schemaKeyspace + ".columns"
+                + " WHERE keyspace_name = ? AND table_name = ?",
+            keyspace, tableName)).all();
+    }
+    
+    private QueryClass classify(CqlSelectParser.ParsedSelect select, List<String> partitionKey) {
+        if (partitionKey.isEmpty()) {
+            return QueryClass.FULL_SCAN;
+        }
+        
+        boolean allRestricted = true;
+        boolean in = false;
+        for (String column : partitionKey) {
+            CqlSelectParser.Relation relation = partitionKeyRelation(select, column);
+            if (relation == null) {
+                allRestricted = false;
+                break;
+            }
+            in |= "in".equals(relation.getOperator());
+        }
+        if (allRestricted) {
+            return in ? QueryClass.MULTI_PARTITION_IN : QueryClass.SINGLE_PARTITION;
+        }
         
-        for (String keyword : dangerousKeywords) {
-            if (normalized.contains(keyword) && !normalized.startsWith("SELECT")) {
-                throw new IllegalArgumentException("Query contains prohibited operation: " + keyword);
+        for (CqlSelectParser.Relation relation : select.getRelations()) {
+            if (relation.isToken() && relation.getColumns().equals(partitionKey)) {
+                return "=".equals(relation.getOperator()) ? QueryClass.SINGLE_PARTITION : QueryClass.TOKEN_RANGE;
+            }
+        }
+        // Anything else - including secondary index and filtering queries - reads every node
+        return QueryClass.FULL_SCAN;
+    }
+    
+    private CqlSelectParser.Relation partitionKeyRelation(CqlSelectParser.ParsedSelect select, String column) {
+        for (CqlSelectParser.Relation relation : select.getRelations()) {
+            if (!relation.isToken() && relation.getColumns().size() == 1 && relation.getColumns().get(0).equals(column)
+                    && ("=".equals(relation.getOperator()) || "in".equals(relation.getOperator()))) {
+                return relation;
+            }
+        }
+        return null;
+    }
+    
+    private int inPartitions(CqlSelectParser.ParsedSelect select, List<String> partitionKey) {
+        // IN ? is bound at execution time, so only literal lists can be counted here
+        int partitions = 1;
+        for (String column : partitionKey) {
+            CqlSelectParser.Relation relation = partitionKeyRelation(select, column);
+            if (relation != null && relation.getInValues() > 0) {
+                partitions = (int) Math.min((long) partitions * relation.getInValues(), Integer.MAX_VALUE);
             }
         }
+        return partitions;
     }
     
     public int getMaxResultSize() {
         return MAX_RESULT_SIZE;
     }
+    
+    public int resolvePageSize(Integer requestedPageSize) {
+        if (requestedPageSize == null) {
+            return MAX_RESULT_SIZE;
+        }
+        if (requestedPageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        // Never page beyond the max result size, the UI cannot render more anyway
+        return Math.min(requestedPageSize, MAX_RESULT_SIZE);
+    }
+    
+    public int getMaxStreamResultSize() {
+        return MAX_STREAM_RESULT_SIZE;
+    }
+    
+    public int resolveStreamPageSize(Integer requestedPageSize) {
+        if (requestedPageSize == null) {
+            return DEFAULT_STREAM_PAGE_SIZE;
+        }
+        // Streamed pages are written out as they arrive, so they are held to the same bound
+        return resolvePageSize(requestedPageSize);
+    }
 }
-
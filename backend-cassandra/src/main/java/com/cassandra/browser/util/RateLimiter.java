@@ -0,0 +1,42 @@
+package com.cassandra.browser.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking rate limiter shared by the workers of one job. Permits are handed out at a
+ * steady rate with no stored burst, so a job that was idle does not catch up by
+ * exceeding the rate afterwards.
+ */
+public class RateLimiter {
+    
+    private final long nanosPerPermit;
+    private long nextFreeNanos = System.nanoTime();
+    
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be greater than 0");
+        }
+        this.nanosPerPermit = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    }
+    
+    /**
+     * Blocks until the permits are available. An interrupt ends the wait early and
+     * leaves the interrupt flag set for the caller to act on.
+     */
+    public void acquire(int permits) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now);
+            nextFreeNanos = start + permits * nanosPerPermit;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.cassandra.browser.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Space-Saving heavy-hitters sketch. At most capacity values are tracked; a new value
+ * takes over the slot of the least frequent one and inherits its count as error, so a
+ * reported count over-estimates the true count by at most its error. Values are keyed
+ * by hash and their label is only built when a value enters the sketch.
+ */
+public class SpaceSavingSketch {
+    
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    
+    public static class Counter {
+        private final String value;
+        private long count;
+        private long error;
+        
+        Counter(String value, long count, long error) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+        }
+        
+        public String getValue() { return value; }
+        public long getCount() { return count; }
+        public long getError() { return error; }
+    }
+    
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+    
+    public void offer(long hash, Supplier<String> label) {
+        Counter counter = counters.get(hash);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(hash, new Counter(label.get(), 1, 0));
+            return;
+        }
+        Map.Entry<Long, Counter> min = minEntry();
+        counters.remove(min.getKey());
+        counters.put(hash, new Counter(label.get(), min.getValue().count + 1, min.getValue().count));
+    }
+    
+    /**
+     * Merges another sketch into this one. A value missing from a full sketch may have
+     * occurred up to that sketch's minimum count, which is added to its count and error.
+     */
+    public void merge(SpaceSavingSketch other) {
+        long thisMin = counters.size() < capacity ? 0 : minEntry().getValue().count;
+        long otherMin = other.counters.size() < other.capacity ? 0 : other.minEntry().getValue().count;
+        
+        Map<Long, Counter> merged = new HashMap<>();
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter mine = entry.getValue();
+            Counter theirs = other.counters.get(entry.getKey());
+            merged.put(entry.getKey(), theirs != null
+                ? new Counter(mine.value, mine.count + theirs.count, mine.error + theirs.error)
+                : new Counter(mine.value, mine.count + otherMin, mine.error + otherMin));
+        }
+        for (Map.Entry<Long, Counter> entry : other.counters.entrySet()) {
+            if (!merged.containsKey(entry.getKey())) {
+                Counter theirs = entry.getValue();
+                merged.put(entry.getKey(), new Counter(theirs.value, theirs.count + thisMin, theirs.error + thisMin));
+            }
+        }
+        
+        counters.clear();
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, Counter> entry) -> entry.getValue().count).reversed())
+                .limit(capacity)
+                .forEach(entry -> counters.put(entry.getKey(), entry.getValue()));
+    }
+    
+    /**
+     * The limit most frequent values, most frequent first.
+     */
+    public List<Counter> top(int limit) {
+        List<Counter> top = new ArrayList<>(counters.values());
+        top.sort(Comparator.comparingLong(Counter::getCount).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+    
+    private Map.Entry<Long, Counter> minEntry() {
+        Map.Entry<Long, Counter> min = null;
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            if (min == null || entry.getValue().count < min.getValue().count) {
+                min = entry;
+            }
+        }
+        return min;
+    }
+}
@@ -2,16 +2,20 @@ package com.kafka.browser.controller;
 
 import com.kafka.browser.model.request.KafkaConnectionRequest;
 import com.kafka.browser.model.request.KafkaConsumeRequest;
+import com.kafka.browser.model.request.KafkaSearchRequest;
 import com.kafka.browser.model.response.KafkaClusterResponse;
 import com.kafka.browser.model.response.KafkaMessageResponse;
 import com.kafka.browser.model.response.KafkaTopicResponse;
 import com.kafka.browser.service.KafkaConnectionManager;
 import com.kafka.browser.service.KafkaMetadataService;
 import com.kafka.browser.service.KafkaMessageService;
+import com.kafka.browser.service.TopicTailService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
 import java.util.concurrent.ExecutionException;
@@ -31,6 +35,9 @@ public class KafkaController {
     @Autowired
     private KafkaMessageService messageService;
     
+    @Autowired
+    private TopicTailService topicTailService;
+    
     @PostMapping("/kafka/clusters/test-connection")
     public ResponseEntity<Map<String, Object>> testConnection(@Valid @RequestBody KafkaConnectionRequest request) {
         Map<String, Object> response = new HashMap<>();
@@ -129,6 +136,32 @@ public class KafkaController {
         }
     }
     
+    /**
+     * Streams records produced to the topic from now on: a "start" event with the
+     * starting offset of each partition, then one "records" event per batch.
+     */
+    @GetMapping(value = "/kafka/clusters/{clusterId}/topics/{topicName}/tail",
+                produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailTopic(
+            @PathVariable String clusterId,
+            @PathVariable String topicName,
+            @RequestParam(required = false) Integer partition) {
+        return topicTailService.startTail(clusterId, topicName, partition);
+    }
+    
+    /**
+     * Searches the topic on the server and streams "matches", "progress" and a final
+     * "done" event.
+     */
+    @PostMapping(value = "/kafka/clusters/{clusterId}/topics/{topicName}/search",
+                 produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter searchMessages(
+            @PathVariable String clusterId,
+            @PathVariable String topicName,
+            @RequestBody KafkaSearchRequest request) {
+        return messageService.searchMessages(clusterId, topicName, request);
+    }
+    
     private Map<String, Object> buildKafkaConfig(KafkaConnectionRequest request) {
         Map<String, Object> config = new HashMap<>();
         config.put(org.apache.kafka.clients.admin.AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, 
@@ -12,5 +12,7 @@ public class KafkaConsumeRequest {
     private Integer maxMessages; // default 100
     private String consumerGroup; // optional
     private Boolean fromBeginning; // default false
+    private Long fromTimestamp; // epoch millis, resolved per partition
+    private Long toTimestamp; // epoch millis, inclusive
 }
 
@@ -0,0 +1,30 @@
+package com.kafka.browser.model.request;
+
+import lombok.Data;
+
+/**
+ * Window and predicate of a server-side topic search. All given conditions must match.
+ * Without a window the whole topic, as of the start of the search, is scanned.
+ */
+@Data
+public class KafkaSearchRequest {
+    private Integer partition; // null means all partitions
+    
+    // Window - offsets apply to every partition, timestamps are resolved per partition
+    private Long fromOffset;
+    private Long toOffset; // exclusive
+    private Long fromTimestamp; // epoch millis
+    private Long toTimestamp; // epoch millis, inclusive
+    
+    // Predicate
+    private String keyEquals;
+    private String valueContains;
+    private String valueRegex;
+    private String jsonPath; // e.g. $.order.id, compared with jsonValue
+    private String jsonValue;
+    private String headerKey; // header must be present, and equal headerValue if given
+    private String headerValue;
+    
+    private Integer maxMatches; // default 100
+    private Integer concurrency; // consumers reading in parallel, default 16
+}
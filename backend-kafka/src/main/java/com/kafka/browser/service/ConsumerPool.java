@@ -0,0 +1,200 @@
+package com.kafka.browser.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of consumers for one cluster. KafkaConsumer is not thread-safe, so each
+ * request leases a consumer for its own use and returns it when done. At most maxSize
+ * consumers exist at a time; further requests wait up to the acquire timeout. Idle
+ * consumers are reused most-recently-returned first and closed once idle for too long.
+ */
+public class ConsumerPool {
+    
+    private static final String WAIT_TIMER = "kafka.consumer-pool.wait";
+    private static final String TIMEOUT_COUNTER = "kafka.consumer-pool.timeouts";
+    private static final String ACTIVE_GAUGE = "kafka.consumer-pool.active";
+    private static final String IDLE_GAUGE = "kafka.consumer-pool.idle";
+    
+    private final Supplier<KafkaConsumer<String, String>> factory;
+    private final int maxSize;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    // Head holds the most recently returned consumer, the tail the longest idle one
+    private final ConcurrentLinkedDeque<Idle> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter timeouts;
+    private final List<Meter> meters;
+    private volatile boolean closed;
+    
+    private static class Idle {
+        private final KafkaConsumer<String, String> consumer;
+        private final long since;
+        
+        Idle(KafkaConsumer<String, String> consumer, long since) {
+            this.consumer = consumer;
+            this.since = since;
+        }
+    }
+    
+    /**
+     * A consumer leased from the pool. Closing the lease returns the consumer with its
+     * assignment cleared; it must not be used afterwards.
+     */
+    public class Lease implements AutoCloseable {
+        private final KafkaConsumer<String, String> consumer;
+        private boolean released;
+        
+        private Lease(KafkaConsumer<String, String> consumer) {
+            this.consumer = consumer;
+        }
+        
+        public KafkaConsumer<String, String> consumer() {
+            return consumer;
+        }
+        
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(consumer);
+            }
+        }
+    }
+    
+    public ConsumerPool(String clusterId, Supplier<KafkaConsumer<String, String>> factory, int maxSize,
+                        Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(maxSize, true);
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Time spent waiting for a pooled consumer")
+                .tag("cluster", clusterId)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder(TIMEOUT_COUNTER)
+                .description("Requests that gave up waiting for a pooled consumer")
+                .tag("cluster", clusterId)
+                .register(meterRegistry);
+        Gauge activeGauge = Gauge.builder(ACTIVE_GAUGE, active, AtomicInteger::get)
+                .description("Consumers currently leased")
+                .tag("cluster", clusterId)
+                .register(meterRegistry);
+        Gauge idleGauge = Gauge.builder(IDLE_GAUGE, idle, ConcurrentLinkedDeque::size)
+                .description("Consumers waiting in the pool")
+                .tag("cluster", clusterId)
+                .register(meterRegistry);
+        this.meters = List.of(waitTimer, timeouts, activeGauge, idleGauge);
+    }
+    
+    public Lease lease() {
+        if (closed) {
+            throw new IllegalStateException("Kafka connection was removed");
+        }
+        
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new IllegalStateException(String.format(
+                    "All %d consumers of this cluster are busy, try again shortly", maxSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a consumer", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        
+        try {
+            Idle pooled = idle.pollFirst();
+            KafkaConsumer<String, String> consumer = pooled != null ? pooled.consumer : factory.get();
+            active.incrementAndGet();
+            return new Lease(consumer);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    private void release(KafkaConsumer<String, String> consumer) {
+        active.decrementAndGet();
+        try {
+            if (closed) {
+                closeQuietly(consumer);
+                return;
+            }
+            try {
+                // Drops the assignment and any fetched but unread records
+                consumer.unsubscribe();
+            } catch (RuntimeException e) {
+                // A consumer that cannot be reset is not handed out again
+                closeQuietly(consumer);
+                return;
+            }
+            idle.offerFirst(new Idle(consumer, System.nanoTime()));
+            if (closed) {
+                // The pool was closed while the consumer was being reset
+                drainIdle();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Closes consumers that have been idle longer than maxIdle.
+     */
+    public void evictIdle(Duration maxIdle) {
+        long cutoff = System.nanoTime() - maxIdle.toNanos();
+        Iterator<Idle> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext()) {
+            Idle pooled = oldestFirst.next();
+            if (pooled.since - cutoff > 0) {
+                break;
+            }
+            // Only the thread that removes the entry closes it, a concurrent lease cannot get it
+            if (idle.removeLastOccurrence(pooled)) {
+                closeQuietly(pooled.consumer);
+            }
+        }
+    }
+    
+    /**
+     * Closes the idle consumers now and leased ones as they are returned.
+     */
+    public void close(MeterRegistry meterRegistry) {
+        closed = true;
+        drainIdle();
+        meters.forEach(meterRegistry::remove);
+    }
+    
+    private void drainIdle() {
+        Idle pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closeQuietly(pooled.consumer);
+        }
+    }
+    
+    private void closeQuietly(KafkaConsumer<String, String> consumer) {
+        try {
+            consumer.close(Duration.ofSeconds(5));
+        } catch (RuntimeException e) {
+            // Nothing to do - the consumer is discarded either way
+        }
+    }
+}
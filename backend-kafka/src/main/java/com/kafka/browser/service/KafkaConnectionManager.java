@@ -1,21 +1,52 @@
 package com.kafka.browser.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KafkaConnectionManager {
     
     private final Map<String, AdminClient> adminClients = new ConcurrentHashMap<>();
-    private final Map<String, KafkaConsumer<String, String>> consumers = new ConcurrentHashMap<>();
+    private final Map<String, ConsumerPool> consumerPools = new ConcurrentHashMap<>();
     private final Map<String, ConnectionInfo> connections = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-consumer-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${kafka.consumer-pool.max-size:8}")
+    private int poolMaxSize;
+    
+    @Value("${kafka.consumer-pool.acquire-timeout-ms:10000}")
+    private long poolAcquireTimeoutMs;
+    
+    @Value("${kafka.consumer-pool.idle-timeout-ms:300000}")
+    private long poolIdleTimeoutMs;
+    
+    public KafkaConnectionManager() {
+        evictor.scheduleWithFixedDelay(() -> consumerPools.values()
+                .forEach(pool -> pool.evictIdle(Duration.ofMillis(poolIdleTimeoutMs))),
+            30, 30, TimeUnit.SECONDS);
+    }
     
     public static class ConnectionInfo {
         private String clusterId;
@@ -58,23 +89,43 @@ public class KafkaConnectionManager {
         return client;
     }
     
-    public KafkaConsumer<String, String> getConsumer(String clusterId) {
-        return consumers.computeIfAbsent(clusterId, id -> {
+    /**
+     * Leases a consumer of the cluster for the caller's exclusive use. The lease must be
+     * closed when done, which returns the consumer to the pool.
+     */
+    public ConsumerPool.Lease leaseConsumer(String clusterId) {
+        return consumerPools.computeIfAbsent(clusterId, id -> {
             ConnectionInfo info = connections.get(id);
             if (info == null) {
                 throw new IllegalArgumentException("Kafka cluster not found: " + id);
             }
-            
-            Map<String, Object> consumerConfig = new HashMap<>(info.getConfig());
-            consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, String.join(",", info.getBootstrapServers()));
-            consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-            consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-            consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-            consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-            consumerConfig.put(ConsumerConfig.GROUP_ID_CONFIG, "kafka-browser-" + UUID.randomUUID().toString());
-            
-            return new KafkaConsumer<>(consumerConfig);
-        });
+            return new ConsumerPool(id, () -> createConsumer(info), poolMaxSize,
+                                    Duration.ofMillis(poolAcquireTimeoutMs), meterRegistry);
+        }).lease();
+    }
+    
+    /**
+     * Creates a consumer outside of the pool for long-running readers such as live tails.
+     * The caller owns it and must close it.
+     */
+    public KafkaConsumer<String, String> createConsumer(String clusterId) {
+        ConnectionInfo info = connections.get(clusterId);
+        if (info == null) {
+            throw new IllegalArgumentException("Kafka cluster not found: " + clusterId);
+        }
+        return createConsumer(info);
+    }
+    
+    private KafkaConsumer<String, String> createConsumer(ConnectionInfo info) {
+        Map<String, Object> consumerConfig = new HashMap<>(info.getConfig());
+        consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, String.join(",", info.getBootstrapServers()));
+        consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.GROUP_ID_CONFIG, "kafka-browser-" + UUID.randomUUID().toString());
+        
+        return new KafkaConsumer<>(consumerConfig);
     }
     
     public void removeConnection(String clusterId) {
@@ -83,12 +134,13 @@ public class KafkaConnectionManager {
             adminClient.close();
         }
         
-        KafkaConsumer<String, String> consumer = consumers.remove(clusterId);
-        if (consumer != null) {
-            consumer.close();
-        }
-        
+        // Remove the connection first so that no new pool is created for it
         connections.remove(clusterId);
+        
+        ConsumerPool pool = consumerPools.remove(clusterId);
+        if (pool != null) {
+            pool.close(meterRegistry);
+        }
     }
     
     public ConnectionInfo getConnectionInfo(String clusterId) {
@@ -98,5 +150,11 @@ public class KafkaConnectionManager {
     public Collection<ConnectionInfo> getAllConnections() {
         return connections.values();
     }
+    
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+        new ArrayList<>(connections.keySet()).forEach(this::removeConnection);
+    }
 }
 
@@ -1,16 +1,34 @@
 package com.kafka.browser.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kafka.browser.model.request.KafkaConsumeRequest;
+import com.kafka.browser.model.request.KafkaSearchRequest;
 import com.kafka.browser.model.response.KafkaMessageResponse;
+import jakarta.annotation.PreDestroy;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,8 +37,138 @@ public class KafkaMessageService {
     @Autowired
     private KafkaConnectionManager connectionManager;
     
+    @Autowired
+    private OffsetTimeIndex offsetTimeIndex;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private static final int DEFAULT_MAX_MESSAGES = 100;
+    private static final Duration RECENT_RATE_WINDOW = Duration.ofMinutes(15);
+    private static final Duration LATEST_POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration LATEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_MAX_MATCHES = 100;
+    private static final int MAX_MATCHES = 10_000;
+    private static final int DEFAULT_SEARCH_CONCURRENCY = 16;
+    private static final long SEARCH_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long SEARCH_FLUSH_INTERVAL_MS = 100;
+    private static final long SEARCH_PROGRESS_INTERVAL_MS = 500;
+    private static final Duration SEARCH_POLL_TIMEOUT = Duration.ofMillis(500);
+    
+    @Value("${kafka.search.max-concurrency:32}")
+    private int maxSearchConcurrency;
+    
+    private final ExecutorService searchExecutor = Executors.newCachedThreadPool();
+    
+    /**
+     * The offsets of one partition a search reads, start inclusive and stop exclusive.
+     */
+    private static class PartitionWindow {
+        private final TopicPartition partition;
+        private final long start;
+        private final long stop;
+        
+        PartitionWindow(TopicPartition partition, long start, long stop) {
+            this.partition = partition;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+    
+    /**
+     * The newest records fetched from one partition, in offset order. from is the lowest
+     * offset fetched so far; records below it are only read when the merge needs them.
+     */
+    private static class PartitionTail {
+        private final TopicPartition partition;
+        private final long beginning;
+        private final long end;
+        private long from;
+        private List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        private int taken; // newest records of this partition in the merged result
+        
+        PartitionTail(TopicPartition partition, long beginning, long end) {
+            this.partition = partition;
+            this.beginning = beginning;
+            this.end = end;
+            this.from = end;
+        }
+        
+        long fetched() {
+            return end - from;
+        }
+    }
+    
+    /**
+     * Shared between the partition readers and the thread streaming the results.
+     */
+    private static class SearchState {
+        private final int maxMatches;
+        private final int partitions;
+        private final long totalRecords;
+        private final long startedAt = System.currentTimeMillis();
+        private final long deadline = startedAt + SEARCH_TIMEOUT_MS;
+        private final AtomicInteger matched = new AtomicInteger();
+        private final Queue<KafkaMessageResponse> unsent = new ConcurrentLinkedQueue<>();
+        private final LongAdder scanned = new LongAdder();
+        private final AtomicInteger partitionsDone = new AtomicInteger();
+        private final Queue<Integer> incompletePartitions = new ConcurrentLinkedQueue<>(); // stopped before the end
+        private volatile boolean stopped;
+        
+        SearchState(List<PartitionWindow> windows, int maxMatches) {
+            this.maxMatches = maxMatches;
+            this.partitions = windows.size();
+            this.totalRecords = windows.stream().mapToLong(window -> window.stop - window.start).sum();
+        }
+        
+        /**
+         * Queues a match for sending. Returns false once the match limit is reached,
+         * which also stops the other readers.
+         */
+        boolean offer(KafkaMessageResponse match) {
+            int count = matched.incrementAndGet();
+            if (count > maxMatches) {
+                stopped = true;
+                return false;
+            }
+            unsent.add(match);
+            if (count == maxMatches) {
+                stopped = true;
+                return false;
+            }
+            return true;
+        }
+        
+        void stop() {
+            stopped = true;
+        }
+        
+        Map<String, Object> progress() {
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("scannedRecords", scanned.sum());
+            progress.put("totalRecords", totalRecords);
+            progress.put("partitionsDone", partitionsDone.get());
+            progress.put("incompletePartitions", incompletePartitions.stream().sorted().collect(Collectors.toList()));
+            progress.put("partitions", partitions);
+            progress.put("matches", Math.min(matched.get(), maxMatches));
+            progress.put("elapsedMs", System.currentTimeMillis() - startedAt);
+            return progress;
+        }
+    }
+    
     public List<KafkaMessageResponse> consumeMessages(String clusterId, KafkaConsumeRequest request) {
-        KafkaConsumer<String, String> consumer = connectionManager.getConsumer(clusterId);
+        // Leased for this request only - KafkaConsumer must not be shared between threads
+        try (ConsumerPool.Lease lease = connectionManager.leaseConsumer(clusterId)) {
+            return consumeMessages(clusterId, lease.consumer(), request);
+        }
+    }
+    
+    private List<KafkaMessageResponse> consumeMessages(String clusterId, KafkaConsumer<String, String> consumer,
+                                                       KafkaConsumeRequest request) {
+        boolean timeRange = request.getFromTimestamp() != null || request.getToTimestamp() != null;
+        if (timeRange) {
+            validateTimeRange(request);
+        }
         
         // Determine partitions
         List<TopicPartition> partitions;
@@ -35,30 +183,27 @@ public class KafkaMessageService {
         
         consumer.assign(partitions);
         
-        // Set offsets
-        if (request.getFromBeginning() != null && request.getFromBeginning()) {
+        // Set offsets; partitions read up to a bound get their exclusive end offset in stopOffsets
+        Map<TopicPartition, Long> stopOffsets = new HashMap<>();
+        if (timeRange) {
+            seekToTimeRange(clusterId, consumer, partitions, request, stopOffsets);
+        } else if (request.getFromBeginning() != null && request.getFromBeginning()) {
             consumer.seekToBeginning(partitions);
         } else if (request.getOffset() != null) {
             partitions.forEach(tp -> consumer.seek(tp, request.getOffset()));
         } else {
-            consumer.seekToEnd(partitions);
-            // Move back by maxMessages to read recent messages
-            if (request.getMaxMessages() != null && request.getMaxMessages() > 0) {
-                partitions.forEach(tp -> {
-                    long endOffset = consumer.position(tp);
-                    long startOffset = Math.max(0, endOffset - request.getMaxMessages());
-                    consumer.seek(tp, startOffset);
-                });
-            }
+            return consumeLatest(consumer, partitions, resolve(request.getMaxMessages(), DEFAULT_MAX_MESSAGES,
+                                                               Integer.MAX_VALUE, "maxMessages"));
         }
         
         // Consume messages
-        int maxMessages = request.getMaxMessages() != null ? request.getMaxMessages() : 100;
+        int maxMessages = request.getMaxMessages() != null ? request.getMaxMessages() : DEFAULT_MAX_MESSAGES;
         List<KafkaMessageResponse> messages = new ArrayList<>();
         int pollCount = 0;
         int maxPolls = 10; // Prevent infinite polling
         
-        while (messages.size() < maxMessages && pollCount < maxPolls) {
+        while (messages.size() < maxMessages && pollCount < maxPolls
+                && consumer.paused().size() < partitions.size()) {
             ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(1));
             
             if (records.isEmpty()) {
@@ -69,29 +214,499 @@ public class KafkaMessageService {
                 if (messages.size() >= maxMessages) {
                     break;
                 }
+                Long stopOffset = stopOffsets.get(new TopicPartition(record.topic(), record.partition()));
+                if (stopOffset != null && record.offset() >= stopOffset) {
+                    continue;
+                }
+                // Timestamps are not strictly ordered within a partition, so the window is checked per record
+                if (timeRange && !inTimeRange(record.timestamp(), request.getFromTimestamp(),
+                                              request.getToTimestamp())) {
+                    continue;
+                }
                 
-                Map<String, String> headers = new HashMap<>();
-                record.headers().forEach(header -> {
-                    headers.put(header.key(), new String(header.value()));
-                });
-                
-                messages.add(new KafkaMessageResponse(
-                        record.topic(),
-                        record.partition(),
-                        record.offset(),
-                        record.timestamp(),
-                        record.key(),
-                        record.value(),
-                        headers,
-                        "STRING",
-                        "STRING"
-                ));
+                messages.add(toMessage(record));
             }
             
+            pauseCompleted(consumer, stopOffsets);
             pollCount++;
         }
         
         return messages;
     }
+    
+    /**
+     * Returns the most recent maxMessages records across the partitions, oldest first.
+     *
+     * Each partition gets a budget proportional to what it produced recently, and all
+     * budgets are fetched at once by the one consumer. The fetched tails are merged newest
+     * first with a heap keyed on record timestamps. A partition whose whole tail made it
+     * into the result may hold more of the most recent records, so only such partitions
+     * are read further back, doubling their tail each round, until the result is exact.
+     * If the partitions cannot be read within LATEST_TIMEOUT the request fails rather than
+     * returning a result with records missing.
+     */
+    private List<KafkaMessageResponse> consumeLatest(KafkaConsumer<String, String> consumer,
+                                                     List<TopicPartition> partitions, int maxMessages) {
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        List<PartitionTail> tails = new ArrayList<>();
+        for (TopicPartition tp : partitions) {
+            tails.add(new PartitionTail(tp, beginningOffsets.getOrDefault(tp, 0L), endOffsets.getOrDefault(tp, 0L)));
+        }
+        
+        long deadline = System.currentTimeMillis() + LATEST_TIMEOUT.toMillis();
+        Map<TopicPartition, Long> budgets = initialBudgets(consumer, tails, maxMessages);
+        List<ConsumerRecord<String, String>> merged;
+        while (true) {
+            fetchTails(consumer, tails, budgets, deadline);
+            merged = mergeNewest(tails, maxMessages);
+            
+            long boundary = merged.size() < maxMessages ? Long.MIN_VALUE : merged.get(merged.size() - 1).timestamp();
+            budgets = new HashMap<>();
+            for (PartitionTail tail : tails) {
+                boolean exhausted = tail.taken == tail.records.size();
+                boolean olderRecords = tail.from > tail.beginning && tail.fetched() < maxMessages;
+                // The next older record is not newer than the partition's oldest fetched one
+                boolean mayContribute = tail.records.isEmpty()
+                        ? merged.size() < maxMessages
+                        : tail.records.get(0).timestamp() > boundary;
+                if (exhausted && olderRecords && mayContribute) {
+                    long budget = tail.fetched() == 0
+                            ? maxMessages - merged.size()
+                            : Math.min(tail.fetched(), maxMessages - tail.fetched());
+                    budgets.put(tail.partition, Math.max(1, budget));
+                }
+            }
+            if (budgets.isEmpty()) {
+                break;
+            }
+        }
+        
+        List<KafkaMessageResponse> messages = new ArrayList<>(merged.size());
+        for (int i = merged.size() - 1; i >= 0; i--) {
+            messages.add(toMessage(merged.get(i)));
+        }
+        return messages;
+    }
+    
+    /**
+     * Splits maxMessages over the partitions in proportion to the records each produced
+     * within the recent window. When the whole topic produced fewer than that, partition
+     * sizes are used instead.
+     */
+    private Map<TopicPartition, Long> initialBudgets(KafkaConsumer<String, String> consumer,
+                                                     List<PartitionTail> tails, int maxMessages) {
+        Map<TopicPartition, Long> since = new HashMap<>();
+        long windowStart = System.currentTimeMillis() - RECENT_RATE_WINDOW.toMillis();
+        tails.forEach(tail -> since.put(tail.partition, windowStart));
+        Map<TopicPartition, OffsetAndTimestamp> windowOffsets = consumer.offsetsForTimes(since);
+        
+        Map<TopicPartition, Long> weights = new HashMap<>();
+        long recentTotal = 0;
+        for (PartitionTail tail : tails) {
+            OffsetAndTimestamp offset = windowOffsets.get(tail.partition);
+            long recent = offset != null ? tail.end - offset.offset() : 0;
+            weights.put(tail.partition, recent);
+            recentTotal += recent;
+        }
+        if (recentTotal < maxMessages) {
+            recentTotal = 0;
+            for (PartitionTail tail : tails) {
+                weights.put(tail.partition, tail.end - tail.beginning);
+                recentTotal += tail.end - tail.beginning;
+            }
+        }
+        
+        Map<TopicPartition, Long> budgets = new HashMap<>();
+        for (PartitionTail tail : tails) {
+            long weight = weights.get(tail.partition);
+            if (weight > 0) {
+                budgets.put(tail.partition, (long) Math.ceil((double) maxMessages * weight / recentTotal));
+            }
+        }
+        return budgets;
+    }
+    
+    /**
+     * Extends the fetched tail of every partition in budgets by up to that many older
+     * records. All partitions are fetched by the same poll loop, so the brokers serve
+     * them in parallel, and each partition is paused once its range is read. The position
+     * also moves past offsets without records, such as transaction markers, so every range
+     * completes unless the deadline passes first.
+     */
+    private void fetchTails(KafkaConsumer<String, String> consumer, List<PartitionTail> tails,
+                            Map<TopicPartition, Long> budgets, long deadline) {
+        Map<TopicPartition, PartitionTail> reading = new HashMap<>();
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> chunks = new HashMap<>();
+        Map<TopicPartition, Long> stopOffsets = new HashMap<>();
+        for (PartitionTail tail : tails) {
+            Long budget = budgets.get(tail.partition);
+            if (budget != null && tail.from > tail.beginning) {
+                reading.put(tail.partition, tail);
+                chunks.put(tail.partition, new ArrayList<>());
+                stopOffsets.put(tail.partition, tail.from);
+            }
+        }
+        if (reading.isEmpty()) {
+            return;
+        }
+        
+        consumer.assign(reading.keySet());
+        // Partitions read in the previous round keep their paused state across assign()
+        consumer.resume(consumer.paused());
+        Map<TopicPartition, Long> startOffsets = new HashMap<>();
+        reading.forEach((tp, tail) -> {
+            long start = Math.max(tail.beginning, tail.from - budgets.get(tp));
+            startOffsets.put(tp, start);
+            consumer.seek(tp, start);
+        });
+        
+        while (consumer.paused().size() < reading.size()) {
+            if (System.currentTimeMillis() >= deadline) {
+                List<Integer> unread = reading.keySet().stream()
+                        .filter(tp -> !consumer.paused().contains(tp))
+                        .map(TopicPartition::partition)
+                        .sorted()
+                        .collect(Collectors.toList());
+                throw new TimeoutException("Timed out reading the latest records of partitions " + unread);
+            }
+            ConsumerRecords<String, String> records = consumer.poll(LATEST_POLL_TIMEOUT);
+            for (TopicPartition tp : records.partitions()) {
+                long stopOffset = stopOffsets.get(tp);
+                for (ConsumerRecord<String, String> record : records.records(tp)) {
+                    if (record.offset() < stopOffset) {
+                        chunks.get(tp).add(record);
+                    }
+                }
+            }
+            pauseCompleted(consumer, stopOffsets);
+        }
+        
+        reading.forEach((tp, tail) -> {
+            // Older records go in front, the tail stays in offset order
+            List<ConsumerRecord<String, String>> records = chunks.get(tp);
+            records.addAll(tail.records);
+            tail.records = records;
+            tail.from = startOffsets.get(tp);
+        });
+    }
+    
+    /**
+     * Merges the fetched tails newest first and returns the newest limit records. Each
+     * partition is walked from its newest record backwards, and the heap always yields
+     * the partition whose next record has the latest timestamp.
+     */
+    private List<ConsumerRecord<String, String>> mergeNewest(List<PartitionTail> tails, int limit) {
+        // Cursor: {tail index, record index}
+        PriorityQueue<int[]> heap = new PriorityQueue<>(
+            Comparator.comparingLong((int[] cursor) -> tails.get(cursor[0]).records.get(cursor[1]).timestamp())
+                .thenComparingLong(cursor -> tails.get(cursor[0]).records.get(cursor[1]).offset())
+                .reversed());
+        for (int i = 0; i < tails.size(); i++) {
+            PartitionTail tail = tails.get(i);
+            tail.taken = 0;
+            if (!tail.records.isEmpty()) {
+                heap.add(new int[] { i, tail.records.size() - 1 });
+            }
+        }
+        
+        List<ConsumerRecord<String, String>> merged = new ArrayList<>();
+        while (merged.size() < limit && !heap.isEmpty()) {
+            int[] cursor = heap.poll();
+            PartitionTail tail = tails.get(cursor[0]);
+            merged.add(tail.records.get(cursor[1]));
+            tail.taken++;
+            if (cursor[1] > 0) {
+                heap.add(new int[] { cursor[0], cursor[1] - 1 });
+            }
+        }
+        return merged;
+    }
+    
+    private void validateTimeRange(KafkaConsumeRequest request) {
+        if (Boolean.TRUE.equals(request.getFromBeginning()) || request.getOffset() != null) {
+            throw new IllegalArgumentException("fromTimestamp/toTimestamp cannot be combined with fromBeginning or offset");
+        }
+        if (request.getFromTimestamp() != null && request.getToTimestamp() != null
+                && request.getFromTimestamp() > request.getToTimestamp()) {
+            throw new IllegalArgumentException("fromTimestamp must not be after toTimestamp");
+        }
+    }
+    
+    /**
+     * Positions every partition at the first record at or after fromTimestamp and bounds
+     * it before the first record after toTimestamp. Without fromTimestamp the read starts
+     * maxMessages before the bound, like the latest mode does before the end.
+     */
+    private void seekToTimeRange(String clusterId, KafkaConsumer<String, String> consumer,
+                                 List<TopicPartition> partitions, KafkaConsumeRequest request,
+                                 Map<TopicPartition, Long> stopOffsets) {
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> toOffsets = request.getToTimestamp() != null
+                ? offsetTimeIndex.offsetsForTime(clusterId, consumer, partitions, request.getToTimestamp() + 1,
+                                                 endOffsets)
+                : endOffsets;
+        Map<TopicPartition, Long> fromOffsets = request.getFromTimestamp() != null
+                ? offsetTimeIndex.offsetsForTime(clusterId, consumer, partitions, request.getFromTimestamp(),
+                                                 endOffsets)
+                : null;
+        int maxMessages = request.getMaxMessages() != null ? request.getMaxMessages() : 100;
+        
+        List<TopicPartition> empty = new ArrayList<>();
+        for (TopicPartition tp : partitions) {
+            long stopOffset = toOffsets.getOrDefault(tp, 0L);
+            long startOffset = fromOffsets != null
+                    ? fromOffsets.getOrDefault(tp, stopOffset)
+                    : Math.max(0, stopOffset - maxMessages);
+            stopOffsets.put(tp, stopOffset);
+            consumer.seek(tp, startOffset);
+            if (startOffset >= stopOffset) {
+                empty.add(tp);
+            }
+        }
+        // Nothing of these partitions falls into the window, they are never fetched
+        consumer.pause(empty);
+    }
+    
+    private boolean inTimeRange(long timestamp, Long fromTimestamp, Long toTimestamp) {
+        return (fromTimestamp == null || timestamp >= fromTimestamp)
+                && (toTimestamp == null || timestamp <= toTimestamp);
+    }
+    
+    private void pauseCompleted(KafkaConsumer<String, String> consumer, Map<TopicPartition, Long> stopOffsets) {
+        List<TopicPartition> completed = new ArrayList<>();
+        stopOffsets.forEach((tp, stopOffset) -> {
+            if (!consumer.paused().contains(tp) && consumer.position(tp) >= stopOffset) {
+                completed.add(tp);
+            }
+        });
+        consumer.pause(completed);
+    }
+    
+    static KafkaMessageResponse toMessage(ConsumerRecord<String, String> record) {
+        Map<String, String> headers = new HashMap<>();
+        record.headers().forEach(header -> {
+            headers.put(header.key(), header.value() != null ? new String(header.value()) : null);
+        });
+        
+        return new KafkaMessageResponse(
+                record.topic(),
+                record.partition(),
+                record.offset(),
+                record.timestamp(),
+                record.key(),
+                record.value(),
+                headers,
+                "STRING",
+                "STRING"
+        );
+    }
+    
+    /**
+     * Searches a window of the topic on the server. Partitions are read in parallel, each
+     * by its own consumer, and every record is tested against the request's predicate.
+     * Results are streamed as Server-Sent Events: "matches" batches as they are found,
+     * "progress" twice a second and a final "done". The search stops once maxMatches
+     * records matched, the client disconnects or the search times out; partitions not
+     * read to the end of their window by then are listed as incompletePartitions.
+     */
+    public SseEmitter searchMessages(String clusterId, String topic, KafkaSearchRequest request) {
+        Predicate<ConsumerRecord<String, String>> predicate = MessagePredicate.compile(request, objectMapper);
+        if (request.getFromTimestamp() != null || request.getToTimestamp() != null) {
+            // Offsets only bound the window, timestamps within a partition may be out of order
+            predicate = predicate.and(record -> inTimeRange(record.timestamp(),
+                request.getFromTimestamp(), request.getToTimestamp()));
+        }
+        int maxMatches = resolve(request.getMaxMatches(), DEFAULT_MAX_MATCHES, MAX_MATCHES, "maxMatches");
+        int concurrency = resolve(request.getConcurrency(), DEFAULT_SEARCH_CONCURRENCY, maxSearchConcurrency,
+                                  "concurrency");
+        
+        // Resolved before the response starts, so that bad requests are rejected with a 400
+        List<PartitionWindow> windows;
+        try (ConsumerPool.Lease lease = connectionManager.leaseConsumer(clusterId)) {
+            windows = resolveSearchWindows(clusterId, lease.consumer(), topic, request);
+        }
+        
+        SearchState search = new SearchState(windows, maxMatches);
+        SseEmitter emitter = new SseEmitter(SEARCH_TIMEOUT_MS);
+        emitter.onCompletion(search::stop);
+        emitter.onTimeout(search::stop);
+        emitter.onError(e -> search.stop());
+        
+        Predicate<ConsumerRecord<String, String>> matcher = predicate;
+        searchExecutor.execute(() -> runSearch(clusterId, windows, matcher, concurrency, search, emitter));
+        return emitter;
+    }
+    
+    private List<PartitionWindow> resolveSearchWindows(String clusterId, KafkaConsumer<String, String> consumer,
+                                                       String topic, KafkaSearchRequest request) {
+        if (request.getFromOffset() != null && request.getFromTimestamp() != null
+                || request.getToOffset() != null && request.getToTimestamp() != null) {
+            throw new IllegalArgumentException("Each end of the window takes either an offset or a timestamp");
+        }
+        
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            throw new IllegalArgumentException("Topic not found: " + topic);
+        }
+        List<TopicPartition> partitions = infos.stream()
+                .filter(info -> request.getPartition() == null || info.partition() == request.getPartition())
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .sorted(Comparator.comparingInt(TopicPartition::partition))
+                .collect(Collectors.toList());
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("Partition " + request.getPartition() + " not found in topic " + topic);
+        }
+        
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> fromOffsets = request.getFromTimestamp() != null
+                ? offsetTimeIndex.offsetsForTime(clusterId, consumer, partitions, request.getFromTimestamp(), endOffsets)
+                : null;
+        Map<TopicPartition, Long> toOffsets = request.getToTimestamp() != null
+                ? offsetTimeIndex.offsetsForTime(clusterId, consumer, partitions, request.getToTimestamp() + 1,
+                                                 endOffsets)
+                : null;
+        
+        List<PartitionWindow> windows = new ArrayList<>();
+        for (TopicPartition tp : partitions) {
+            long beginning = beginningOffsets.getOrDefault(tp, 0L);
+            long end = endOffsets.getOrDefault(tp, 0L);
+            long start = fromOffsets != null ? fromOffsets.get(tp)
+                    : request.getFromOffset() != null ? request.getFromOffset() : beginning;
+            long stop = toOffsets != null ? toOffsets.get(tp)
+                    : request.getToOffset() != null ? request.getToOffset() : end;
+            // Records produced after the search started are not read
+            windows.add(new PartitionWindow(tp, Math.max(start, beginning), Math.min(stop, end)));
+        }
+        return windows;
+    }
+    
+    private void runSearch(String clusterId, List<PartitionWindow> windows,
+                           Predicate<ConsumerRecord<String, String>> predicate, int concurrency,
+                           SearchState search, SseEmitter emitter) {
+        Queue<PartitionWindow> pending = new ConcurrentLinkedQueue<>();
+        for (PartitionWindow window : windows) {
+            if (window.start < window.stop) {
+                pending.add(window);
+            } else {
+                search.partitionsDone.incrementAndGet();
+            }
+        }
+        
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < Math.min(concurrency, pending.size()); i++) {
+            readers.add(searchExecutor.submit(() -> {
+                // Readers live as long as the search, so they do not hold consumers of the request pool
+                try (KafkaConsumer<String, String> consumer = connectionManager.createConsumer(clusterId)) {
+                    PartitionWindow window;
+                    while (!search.stopped && (window = pending.poll()) != null) {
+                        scanPartition(consumer, window, predicate, search);
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        try {
+            long lastProgress = 0;
+            while (!readers.stream().allMatch(Future::isDone)) {
+                Thread.sleep(SEARCH_FLUSH_INTERVAL_MS);
+                sendMatches(emitter, search);
+                if (System.currentTimeMillis() - lastProgress >= SEARCH_PROGRESS_INTERVAL_MS) {
+                    emitter.send(SseEmitter.event().name("progress").data(search.progress(), MediaType.APPLICATION_JSON));
+                    lastProgress = System.currentTimeMillis();
+                }
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+            // Partitions no reader got to before the search stopped
+            for (PartitionWindow window : pending) {
+                search.incompletePartitions.add(window.partition.partition());
+            }
+            
+            sendMatches(emitter, search);
+            Map<String, Object> done = search.progress();
+            done.put("limitReached", search.matched.get() >= search.maxMatches);
+            emitter.send(SseEmitter.event().name("done").data(done, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            // Client disconnected
+            search.stop();
+        } catch (InterruptedException e) {
+            search.stop();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            search.stop();
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            try {
+                emitter.send(SseEmitter.event().name("error").data(Map.of("message", String.valueOf(cause.getMessage())),
+                                                                   MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ignored) {
+                // Client is gone already
+            }
+        } catch (IllegalStateException e) {
+            // Emitter completed by the container (timeout or disconnect)
+            search.stop();
+        }
+    }
+    
+    private void scanPartition(KafkaConsumer<String, String> consumer, PartitionWindow window,
+                               Predicate<ConsumerRecord<String, String>> predicate, SearchState search) {
+        consumer.assign(Collections.singletonList(window.partition));
+        consumer.seek(window.partition, window.start);
+        
+        // The position also moves past offsets without records, such as transaction markers,
+        // so empty polls only mean a slow broker and the reader keeps going until the deadline
+        while (consumer.position(window.partition) < window.stop) {
+            if (search.stopped || System.currentTimeMillis() >= search.deadline) {
+                search.incompletePartitions.add(window.partition.partition());
+                return;
+            }
+            ConsumerRecords<String, String> records = consumer.poll(SEARCH_POLL_TIMEOUT);
+            for (ConsumerRecord<String, String> record : records) {
+                if (record.offset() >= window.stop) {
+                    break;
+                }
+                search.scanned.increment();
+                if (predicate.test(record) && !search.offer(toMessage(record))) {
+                    if (record.offset() + 1 < window.stop) {
+                        search.incompletePartitions.add(window.partition.partition());
+                    } else {
+                        search.partitionsDone.incrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+        search.partitionsDone.incrementAndGet();
+    }
+    
+    private void sendMatches(SseEmitter emitter, SearchState search) throws IOException {
+        List<KafkaMessageResponse> batch = new ArrayList<>();
+        KafkaMessageResponse match;
+        while ((match = search.unsent.poll()) != null) {
+            batch.add(match);
+        }
+        if (!batch.isEmpty()) {
+            emitter.send(SseEmitter.event().name("matches").data(batch, MediaType.APPLICATION_JSON));
+        }
+    }
+    
+    private int resolve(Integer requested, int defaultValue, int max, String name) {
+        if (requested == null) {
+            return defaultValue;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1");
+        }
+        return Math.min(requested, max);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        searchExecutor.shutdownNow();
+    }
 }
-
@@ -4,7 +4,6 @@ import com.kafka.browser.model.response.KafkaTopicResponse;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.ListTopicsResult;
 import org.apache.kafka.clients.admin.TopicDescription;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -28,8 +27,6 @@ public class KafkaMetadataService {
     public KafkaTopicResponse getTopicDetails(String clusterId, String topicName) 
             throws ExecutionException, InterruptedException {
         AdminClient adminClient = connectionManager.getAdminClient(clusterId);
-        KafkaConsumer<String, String> consumer = connectionManager.getConsumer(clusterId);
-        
         // Get topic description
         Map<String, TopicDescription> topics = adminClient.describeTopics(Collections.singletonList(topicName))
                 .allTopicNames()
@@ -45,8 +42,12 @@ public class KafkaMetadataService {
                 .map(p -> new TopicPartition(topicName, p.partition()))
                 .collect(Collectors.toList());
         
-        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
-        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, Long> beginningOffsets;
+        Map<TopicPartition, Long> endOffsets;
+        try (ConsumerPool.Lease lease = connectionManager.leaseConsumer(clusterId)) {
+            beginningOffsets = lease.consumer().beginningOffsets(partitions);
+            endOffsets = lease.consumer().endOffsets(partitions);
+        }
         
         List<KafkaTopicResponse.PartitionInfo> partitionInfos = new ArrayList<>();
         long totalMessages = 0;
@@ -0,0 +1,128 @@
+package com.kafka.browser.service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.browser.model.request.KafkaSearchRequest;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles the conditions of a search request into one record predicate. Cheap checks
+ * run first, so JSON is only parsed for records that passed the others.
+ */
+public final class MessagePredicate {
+    
+    private static final Pattern PLAIN_TEXT = Pattern.compile("[A-Za-z0-9 _.:@+-]*");
+    
+    private MessagePredicate() {
+    }
+    
+    public static Predicate<ConsumerRecord<String, String>> compile(KafkaSearchRequest request,
+                                                                   ObjectMapper objectMapper) {
+        List<Predicate<ConsumerRecord<String, String>>> conditions = new ArrayList<>();
+        
+        if (request.getKeyEquals() != null) {
+            String key = request.getKeyEquals();
+            conditions.add(record -> key.equals(record.key()));
+        }
+        if (request.getHeaderKey() != null) {
+            conditions.add(headerMatches(request.getHeaderKey(), request.getHeaderValue()));
+        }
+        if (request.getValueContains() != null) {
+            String text = request.getValueContains();
+            conditions.add(record -> record.value() != null && record.value().contains(text));
+        }
+        if (request.getValueRegex() != null) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(request.getValueRegex());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid valueRegex: " + e.getDescription());
+            }
+            conditions.add(record -> record.value() != null && pattern.matcher(record.value()).find());
+        }
+        if (request.getJsonPath() != null) {
+            if (request.getJsonValue() == null) {
+                throw new IllegalArgumentException("jsonPath requires jsonValue");
+            }
+            conditions.add(jsonEquals(toPointer(request.getJsonPath()), request.getJsonValue(), objectMapper));
+        }
+        
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException(
+                "At least one of keyEquals, valueContains, valueRegex, jsonPath or headerKey is required");
+        }
+        return conditions.stream().reduce(Predicate::and).get();
+    }
+    
+    private static Predicate<ConsumerRecord<String, String>> headerMatches(String key, String value) {
+        byte[] expected = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        return record -> {
+            for (Header header : record.headers().headers(key)) {
+                if (expected == null || Arrays.equals(expected, header.value())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+    
+    private static Predicate<ConsumerRecord<String, String>> jsonEquals(JsonPointer pointer, String expected,
+                                                                       ObjectMapper objectMapper) {
+        // Text that JSON never escapes appears verbatim in a matching value, so others are skipped unparsed
+        boolean prefilter = PLAIN_TEXT.matcher(expected).matches();
+        return record -> {
+            String value = record.value();
+            if (value == null || (prefilter && !value.contains(expected))) {
+                return false;
+            }
+            try {
+                JsonNode node = objectMapper.readTree(value).at(pointer);
+                return node.isValueNode() && expected.equals(node.asText());
+            } catch (Exception e) {
+                // Not JSON - cannot match
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Accepts a JSON Pointer (/order/id) or a simple JSON path ($.order.id, order.items[0].sku).
+     */
+    static JsonPointer toPointer(String path) {
+        String trimmed = path.trim();
+        if (trimmed.startsWith("/")) {
+            try {
+                return JsonPointer.compile(trimmed);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid jsonPath: " + path);
+            }
+        }
+        if (trimmed.startsWith("$")) {
+            trimmed = trimmed.substring(1);
+        }
+        StringBuilder pointer = new StringBuilder();
+        for (String segment : trimmed.replace("[", ".").replace("]", "").split("\\.")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.contains("*")) {
+                throw new IllegalArgumentException("Wildcards are not supported in jsonPath: " + path);
+            }
+            pointer.append('/').append(segment.replace("~", "~0").replace("/", "~1"));
+        }
+        if (pointer.length() == 0) {
+            throw new IllegalArgumentException("Invalid jsonPath: " + path);
+        }
+        return JsonPointer.compile(pointer.toString());
+    }
+}
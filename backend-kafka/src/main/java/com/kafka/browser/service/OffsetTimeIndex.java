@@ -0,0 +1,116 @@
+package com.kafka.browser.service;
+
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Caches timestamp-to-offset lookups per partition, so zooming into a time window does
+ * not ask the brokers again for timestamps already resolved.
+ *
+ * A lookup for timestamp t returns the first offset o whose record timestamp T is at
+ * least t. Every t' between t and T resolves to the same o, so both t and T are
+ * remembered, and any timestamp between two cached points with the same offset is
+ * answered from the cache. Lookups past the last record are not cached, because they
+ * change as records are produced.
+ */
+@Service
+public class OffsetTimeIndex {
+    
+    private static final int MAX_PARTITIONS = 10_000;
+    private static final int MAX_POINTS_PER_PARTITION = 512;
+    
+    @Value("${kafka.offset-index.ttl-ms:600000}")
+    private long ttlMs;
+    
+    private final Map<String, PartitionIndex> partitions = Collections.synchronizedMap(
+        new LinkedHashMap<String, PartitionIndex>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PartitionIndex> eldest) {
+                return size() > MAX_PARTITIONS;
+            }
+        });
+    
+    private static class PartitionIndex {
+        private final TreeMap<Long, Long> offsetByTimestamp = new TreeMap<>();
+        // Retention and topic re-creation move offsets, so points are only trusted for a while
+        private final long createdAt = System.currentTimeMillis();
+        
+        synchronized Long lookup(long timestamp) {
+            Long exact = offsetByTimestamp.get(timestamp);
+            if (exact != null) {
+                return exact;
+            }
+            Map.Entry<Long, Long> floor = offsetByTimestamp.floorEntry(timestamp);
+            Map.Entry<Long, Long> ceiling = offsetByTimestamp.ceilingEntry(timestamp);
+            if (floor != null && ceiling != null && floor.getValue().equals(ceiling.getValue())) {
+                return floor.getValue();
+            }
+            return null;
+        }
+        
+        synchronized void put(long timestamp, long offset, long recordTimestamp) {
+            if (offsetByTimestamp.size() + 2 > MAX_POINTS_PER_PARTITION) {
+                offsetByTimestamp.pollFirstEntry();
+                offsetByTimestamp.pollFirstEntry();
+            }
+            offsetByTimestamp.put(timestamp, offset);
+            offsetByTimestamp.put(recordTimestamp, offset);
+        }
+    }
+    
+    /**
+     * Resolves, for each partition, the first offset whose timestamp is at least the given
+     * timestamp. Partitions without such a record resolve to their end offset. Cache misses
+     * are looked up on the brokers in a single request.
+     */
+    public Map<TopicPartition, Long> offsetsForTime(String clusterId, KafkaConsumer<String, String> consumer,
+                                                    List<TopicPartition> topicPartitions, long timestamp,
+                                                    Map<TopicPartition, Long> endOffsets) {
+        Map<TopicPartition, Long> result = new HashMap<>();
+        Map<TopicPartition, Long> misses = new HashMap<>();
+        for (TopicPartition tp : topicPartitions) {
+            Long cached = index(clusterId, tp).lookup(timestamp);
+            if (cached != null) {
+                result.put(tp, cached);
+            } else {
+                misses.put(tp, timestamp);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(misses);
+            for (TopicPartition tp : misses.keySet()) {
+                OffsetAndTimestamp offset = found.get(tp);
+                if (offset != null) {
+                    index(clusterId, tp).put(timestamp, offset.offset(), offset.timestamp());
+                    result.put(tp, offset.offset());
+                } else {
+                    result.put(tp, endOffsets.getOrDefault(tp, 0L));
+                }
+            }
+        }
+        return result;
+    }
+    
+    private PartitionIndex index(String clusterId, TopicPartition tp) {
+        String key = clusterId + "/" + tp.topic() + "/" + tp.partition();
+        synchronized (partitions) {
+            PartitionIndex index = partitions.get(key);
+            if (index == null || System.currentTimeMillis() - index.createdAt > ttlMs) {
+                index = new PartitionIndex();
+                partitions.put(key, index);
+            }
+            return index;
+        }
+    }
+}
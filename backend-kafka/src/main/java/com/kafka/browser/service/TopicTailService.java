@@ -0,0 +1,171 @@
+package com.kafka.browser.service;
+
+import com.kafka.browser.model.response.KafkaMessageResponse;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams new records of a topic to the browser as Server-Sent Events. Every viewer
+ * gets its own consumer and poll loop, started at the current end of the partitions.
+ * Each poll is sent as one "records" event, so records arriving together reach the
+ * client together. The loop writes to the client before polling again, so a slow
+ * client slows down its own consumer instead of buffering records on the server.
+ */
+@Service
+public class TopicTailService {
+    
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(250);
+    private static final long HEARTBEAT_INTERVAL_MS = 15_000;
+    
+    @Autowired
+    private KafkaConnectionManager connectionManager;
+    
+    @Value("${kafka.tail.max-sessions-per-cluster:16}")
+    private int maxSessionsPerCluster;
+    
+    @Value("${kafka.tail.max-duration-ms:1800000}")
+    private long maxDurationMs;
+    
+    private final Map<String, AtomicInteger> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    
+    public SseEmitter startTail(String clusterId, String topic, Integer partition) {
+        AtomicInteger clusterSessions = sessions.computeIfAbsent(clusterId, id -> new AtomicInteger());
+        if (clusterSessions.incrementAndGet() > maxSessionsPerCluster) {
+            clusterSessions.decrementAndGet();
+            throw new IllegalStateException(String.format(
+                "At most %d live tails can be open per cluster", maxSessionsPerCluster));
+        }
+        
+        KafkaConsumer<String, String> consumer;
+        List<TopicPartition> partitions;
+        try {
+            consumer = connectionManager.createConsumer(clusterId);
+            try {
+                partitions = partitions(consumer, topic, partition);
+            } catch (RuntimeException e) {
+                consumer.close();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            clusterSessions.decrementAndGet();
+            throw e;
+        }
+        
+        SseEmitter emitter = new SseEmitter(maxDurationMs);
+        AtomicBoolean stopped = new AtomicBoolean();
+        // Called on container threads - wakeup() is the only consumer method safe to call from there
+        Runnable stop = () -> {
+            if (stopped.compareAndSet(false, true)) {
+                consumer.wakeup();
+            }
+        };
+        emitter.onCompletion(stop);
+        emitter.onTimeout(stop);
+        emitter.onError(e -> stop.run());
+        
+        executor.execute(() -> {
+            try {
+                tail(clusterId, consumer, partitions, emitter, stopped);
+            } finally {
+                clusterSessions.decrementAndGet();
+                consumer.close(Duration.ofSeconds(5));
+            }
+        });
+        return emitter;
+    }
+    
+    private List<TopicPartition> partitions(KafkaConsumer<String, String> consumer, String topic,
+                                            Integer partition) {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            throw new IllegalArgumentException("Topic not found: " + topic);
+        }
+        if (partition != null) {
+            if (infos.stream().noneMatch(info -> info.partition() == partition)) {
+                throw new IllegalArgumentException("Partition " + partition + " not found in topic " + topic);
+            }
+            return Collections.singletonList(new TopicPartition(topic, partition));
+        }
+        return infos.stream()
+                .map(info -> new TopicPartition(topic, info.partition()))
+                .collect(Collectors.toList());
+    }
+    
+    private void tail(String clusterId, KafkaConsumer<String, String> consumer, List<TopicPartition> partitions,
+                      SseEmitter emitter, AtomicBoolean stopped) {
+        try {
+            consumer.assign(partitions);
+            consumer.seekToEnd(partitions);
+            // Resolve the end offsets now, otherwise records produced before the first poll are skipped
+            Map<Integer, Long> startOffsets = new TreeMap<>();
+            for (TopicPartition tp : partitions) {
+                startOffsets.put(tp.partition(), consumer.position(tp));
+            }
+            emitter.send(SseEmitter.event().name("start").data(startOffsets, MediaType.APPLICATION_JSON));
+            
+            long lastSent = System.currentTimeMillis();
+            while (!stopped.get()) {
+                if (connectionManager.getConnectionInfo(clusterId) == null) {
+                    // The connection was removed while the tail was open
+                    emitter.complete();
+                    return;
+                }
+                
+                ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                if (!records.isEmpty()) {
+                    List<KafkaMessageResponse> batch = new ArrayList<>(records.count());
+                    for (ConsumerRecord<String, String> record : records) {
+                        batch.add(KafkaMessageService.toMessage(record));
+                    }
+                    // Blocks while the client is not reading, which holds the consumer back
+                    emitter.send(SseEmitter.event().name("records").data(batch, MediaType.APPLICATION_JSON));
+                    lastSent = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - lastSent >= HEARTBEAT_INTERVAL_MS) {
+                    // Detects closed connections on quiet topics
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSent = System.currentTimeMillis();
+                }
+            }
+        } catch (WakeupException | InterruptException e) {
+            // Client went away or the service is shutting down
+        } catch (IOException e) {
+            // Client disconnected - the container completes the emitter
+            stopped.set(true);
+        } catch (RuntimeException e) {
+            if (!stopped.get()) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
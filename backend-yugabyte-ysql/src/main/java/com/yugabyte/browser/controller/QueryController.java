@@ -1,12 +1,15 @@
 package com.yugabyte.browser.controller;
 
 import com.yugabyte.browser.model.request.QueryRequest;
+import com.yugabyte.browser.model.response.ColumnarQueryResponse;
 import com.yugabyte.browser.model.response.QueryResponse;
 import com.yugabyte.browser.service.YSQLQueryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api")
@@ -31,5 +34,36 @@ public class QueryController {
         
         return ResponseEntity.ok(response);
     }
+    
+    @PostMapping(value = "/clusters/{clusterId}/databases/{databaseName}/execute",
+                 produces = ColumnarQueryResponse.MEDIA_TYPE)
+    public ResponseEntity<ColumnarQueryResponse> executeColumnarQuery(
+            @PathVariable String clusterId,
+            @PathVariable String databaseName,
+            @Valid @RequestBody QueryRequest request) {
+        
+        ColumnarQueryResponse response = queryService.executeColumnarQuery(
+            clusterId, databaseName, request.getQuery());
+        
+        if (response.getError() != null) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/clusters/{clusterId}/databases/{databaseName}/execute/stream",
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamQuery(
+            @PathVariable String clusterId,
+            @PathVariable String databaseName,
+            @Valid @RequestBody QueryRequest request) {
+        
+        StreamingResponseBody body = queryService.streamQuery(
+            clusterId, databaseName, request.getQuery(), request.getPageSize());
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
-
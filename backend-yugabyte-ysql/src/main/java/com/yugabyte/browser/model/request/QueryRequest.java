@@ -7,5 +7,7 @@ import lombok.Data;
 public class QueryRequest {
     @NotBlank(message = "Query is required")
     private String query;
+    
+    private Integer pageSize; // rows fetched per round trip when streaming
 }
 
@@ -0,0 +1,38 @@
+package com.yugabyte.browser.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Column-oriented query result, returned when the client sends Accept: MEDIA_TYPE.
+ * Column names and SQL types are sent once and each column's values follow as one array,
+ * keeping numbers and booleans native and timestamps as epoch milliseconds.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarQueryResponse {
+    public static final String MEDIA_TYPE = "application/vnd.odp.columnar+json";
+    
+    private List<Column> columns;
+    private List<List<Object>> values; // values[i][r] is column i of row r
+    private int rowCount;
+    private long executionTime;
+    private String error;
+    
+    public static ColumnarQueryResponse error(String errorMessage) {
+        ColumnarQueryResponse response = new ColumnarQueryResponse();
+        response.setError(errorMessage);
+        return response;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Column {
+        private String name;
+        private String type;
+    }
+}
@@ -13,6 +13,8 @@ import java.util.Properties;
 public class ConnectionManager {
     private final Map<String, Connection> connections = new ConcurrentHashMap<>();
     private final Map<String, ConnectionInfo> connectionInfo = new ConcurrentHashMap<>();
+    // URL and properties of each cluster, for opening dedicated connections
+    private final Map<String, ConnectionSettings> connectionSettings = new ConcurrentHashMap<>();
     
     static {
         try {
@@ -73,6 +75,7 @@ public class ConnectionManager {
         
         Connection connection = DriverManager.getConnection(url, props);
         connections.put(clusterId, connection);
+        connectionSettings.put(clusterId, new ConnectionSettings(url, props));
         
         return connection;
     }
@@ -88,6 +91,18 @@ public class ConnectionManager {
         return connection;
     }
     
+    /**
+     * Opens a new connection to the cluster, separate from the shared one, for work that
+     * needs its own transaction such as cursor-based streaming. The caller closes it.
+     */
+    public Connection openDedicatedConnection(String clusterId) throws SQLException {
+        ConnectionSettings settings = connectionSettings.get(clusterId);
+        if (settings == null) {
+            throw new IllegalArgumentException("Cluster not found: " + clusterId);
+        }
+        return DriverManager.getConnection(settings.url, settings.properties);
+    }
+    
     public void removeConnection(String clusterId) {
         Connection connection = connections.remove(clusterId);
         if (connection != null) {
@@ -99,6 +114,7 @@ public class ConnectionManager {
             }
         }
         connectionInfo.remove(clusterId);
+        connectionSettings.remove(clusterId);
     }
     
     public void storeConnectionInfo(String clusterId, ConnectionInfo info) {
@@ -118,6 +134,16 @@ public class ConnectionManager {
         return connections.keySet();
     }
     
+    private static class ConnectionSettings {
+        private final String url;
+        private final Properties properties;
+        
+        ConnectionSettings(String url, Properties properties) {
+            this.url = url;
+            this.properties = properties;
+        }
+    }
+    
     public static class ConnectionInfo {
         private String name;
         private String datacenter;
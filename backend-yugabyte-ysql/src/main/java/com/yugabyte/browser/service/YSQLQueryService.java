@@ -1,13 +1,19 @@
 package com.yugabyte.browser.service;
 
+import com.yugabyte.browser.model.response.ColumnarQueryResponse;
 import com.yugabyte.browser.model.response.QueryResponse;
 import com.yugabyte.browser.util.QueryValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +26,9 @@ public class YSQLQueryService {
     @Autowired
     private QueryValidator queryValidator;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     public QueryResponse executeQuery(String clusterId, String databaseName, String query) {
         // Validate query
         queryValidator.validateQuery(query);
@@ -53,21 +62,7 @@ public class YSQLQueryService {
                     List<Map<String, Object>> rows = new ArrayList<>();
                     int count = 0;
                     while (rs.next() && count < queryValidator.getMaxResultSize()) {
-                        Map<String, Object> rowData = new HashMap<>();
-                        for (String column : columns) {
-                            Object value = rs.getObject(column);
-                            // Convert value to string representation
-                            if (value != null) {
-                                if (value instanceof byte[]) {
-                                    rowData.put(column, "0x" + bytesToHex((byte[]) value));
-                                } else {
-                                    rowData.put(column, value.toString());
-                                }
-                            } else {
-                                rowData.put(column, null);
-                            }
-                        }
-                        rows.add(rowData);
+                        rows.add(toRowData(rs, columns));
                         count++;
                     }
                     
@@ -92,6 +87,154 @@ public class YSQLQueryService {
         }
     }
     
+    /**
+     * Same as executeQuery, but returns the result in the columnar encoding.
+     */
+    public ColumnarQueryResponse executeColumnarQuery(String clusterId, String databaseName, String query) {
+        queryValidator.validateQuery(query);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            Connection connection = connectionManager.getConnection(clusterId);
+            
+            try (Statement stmt = connection.createStatement()) {
+                stmt.setQueryTimeout(30);
+                stmt.setMaxRows(queryValidator.getMaxResultSize());
+                
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    int columnCount = metaData.getColumnCount();
+                    
+                    List<ColumnarQueryResponse.Column> columns = new ArrayList<>(columnCount);
+                    List<List<Object>> values = new ArrayList<>(columnCount);
+                    for (int i = 1; i <= columnCount; i++) {
+                        columns.add(new ColumnarQueryResponse.Column(
+                            metaData.getColumnName(i), metaData.getColumnTypeName(i)));
+                        values.add(new ArrayList<>());
+                    }
+                    
+                    int rowCount = 0;
+                    while (rs.next() && rowCount < queryValidator.getMaxResultSize()) {
+                        for (int i = 1; i <= columnCount; i++) {
+                            values.get(i - 1).add(toJsonValue(rs.getObject(i)));
+                        }
+                        rowCount++;
+                    }
+                    
+                    return new ColumnarQueryResponse(columns, values, rowCount,
+                        System.currentTimeMillis() - startTime, null);
+                }
+            }
+            
+        } catch (Exception e) {
+            ColumnarQueryResponse response = ColumnarQueryResponse.error(e.getMessage());
+            response.setExecutionTime(System.currentTimeMillis() - startTime);
+            return response;
+        }
+    }
+    
+    /**
+     * Streams the whole result as NDJSON: a header line with the columns, one line per row and
+     * a trailer line with the row count and execution time. The JDBC driver only uses a
+     * server-side cursor outside auto-commit, so the fetch size bounds memory to one page.
+     */
+    public StreamingResponseBody streamQuery(String clusterId, String databaseName, String query,
+                                             Integer pageSize) {
+        // Validate up front so that bad queries are rejected before the response is committed
+        queryValidator.validateQuery(query);
+        int fetchSize = queryValidator.resolveStreamPageSize(pageSize);
+        
+        return outputStream -> {
+            long startTime = System.currentTimeMillis();
+            long rowCount = 0;
+            
+            // A cursor needs its own transaction, so the stream uses a dedicated connection and
+            // never holds up, or rolls back, queries on the shared connection of the cluster
+            try (Connection connection = connectionManager.openDedicatedConnection(clusterId)) {
+                connection.setAutoCommit(false);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.setQueryTimeout(queryValidator.getStreamTimeoutSeconds());
+                    stmt.setFetchSize(fetchSize);
+                    
+                    try (ResultSet rs = stmt.executeQuery(query)) {
+                        ResultSetMetaData metaData = rs.getMetaData();
+                        List<String> columns = new ArrayList<>();
+                        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                            columns.add(metaData.getColumnName(i));
+                        }
+                        
+                        Map<String, Object> header = new LinkedHashMap<>();
+                        header.put("columns", columns);
+                        writeLine(outputStream, header);
+                        
+                        while (rowCount < queryValidator.getMaxStreamResultSize() && rs.next()) {
+                            writeLine(outputStream, toRowData(rs, columns));
+                            rowCount++;
+                            // Flush once per fetched page
+                            if (rowCount % fetchSize == 0) {
+                                outputStream.flush();
+                            }
+                        }
+                    }
+                } finally {
+                    // Read-only cursor, nothing to keep
+                    connection.rollback();
+                }
+                
+                Map<String, Object> trailer = new LinkedHashMap<>();
+                trailer.put("rowCount", rowCount);
+                trailer.put("executionTime", System.currentTimeMillis() - startTime);
+                writeLine(outputStream, trailer);
+                
+            } catch (SQLException e) {
+                Map<String, Object> trailer = new LinkedHashMap<>();
+                trailer.put("rowCount", rowCount);
+                trailer.put("executionTime", System.currentTimeMillis() - startTime);
+                trailer.put("error", e.getMessage());
+                writeLine(outputStream, trailer);
+            }
+            outputStream.flush();
+        };
+    }
+    
+    private Map<String, Object> toRowData(ResultSet rs, List<String> columns) throws SQLException {
+        Map<String, Object> rowData = new HashMap<>();
+        for (String column : columns) {
+            Object value = rs.getObject(column);
+            // Convert value to string representation
+            if (value != null) {
+                if (value instanceof byte[]) {
+                    rowData.put(column, "0x" + bytesToHex((byte[]) value));
+                } else {
+                    rowData.put(column, value.toString());
+                }
+            } else {
+                rowData.put(column, null);
+            }
+        }
+        return rowData;
+    }
+    
+    private Object toJsonValue(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).getTime();
+        }
+        if (value instanceof byte[]) {
+            return "0x" + bytesToHex((byte[]) value);
+        }
+        return value.toString();
+    }
+    
+    private void writeLine(OutputStream outputStream, Object value) throws IOException {
+        // writeValue(OutputStream) would close the response stream, so serialise to bytes first
+        outputStream.write(objectMapper.writeValueAsBytes(value));
+        outputStream.write('\n');
+    }
+    
     private String bytesToHex(byte[] bytes) {
         StringBuilder result = new StringBuilder();
         for (byte b : bytes) {
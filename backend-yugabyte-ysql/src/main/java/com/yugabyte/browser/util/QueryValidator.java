@@ -5,6 +5,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class QueryValidator {
     private static final int MAX_RESULT_SIZE = 1000;
+    private static final int MAX_STREAM_RESULT_SIZE = 1_000_000;
+    private static final int DEFAULT_STREAM_PAGE_SIZE = 500;
+    private static final int STREAM_TIMEOUT_SECONDS = 600;
     
     public void validateQuery(String query) {
         if (query == null || query.trim().isEmpty()) {
@@ -36,5 +39,23 @@ public class QueryValidator {
     public int getMaxResultSize() {
         return MAX_RESULT_SIZE;
     }
+    
+    public int getMaxStreamResultSize() {
+        return MAX_STREAM_RESULT_SIZE;
+    }
+    
+    public int getStreamTimeoutSeconds() {
+        return STREAM_TIMEOUT_SECONDS;
+    }
+    
+    public int resolveStreamPageSize(Integer requestedPageSize) {
+        if (requestedPageSize == null) {
+            return DEFAULT_STREAM_PAGE_SIZE;
+        }
+        if (requestedPageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requestedPageSize, MAX_RESULT_SIZE);
+    }
 }
 
@@ -203,14 +203,14 @@ export const getTableRecords = async (clusterId, keyspaceName, tableName, limit
 /**
  * Execute a custom CQL query
  */
-export const executeQuery = async (clusterId, keyspaceName, query) => {
+export const executeQuery = async (clusterId, keyspaceName, query, { pageSize, pagingState } = {}) => {
   try {
     const response = await fetch(
       `${API_BASE_URL}/clusters/${clusterId}/keyspaces/${keyspaceName}/execute`,
       {
         method: 'POST',
         headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify({ query }),
+        body: JSON.stringify({ query, pageSize, pagingState }),
       }
     )
     const data = await response.json()